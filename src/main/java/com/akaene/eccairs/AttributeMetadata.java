@@ -0,0 +1,26 @@
+package com.akaene.eccairs;
+
+import java.util.Optional;
+
+/**
+ * Metadata of an ECCAIRS attribute, as provided by the Taxonomy Browser API.
+ *
+ * @param id              Internal ECCAIRS id
+ * @param taxonomyCode    Taxonomy code of the attribute, for example, {@literal 390} for Event type
+ * @param dataType        Data type of the attribute, may be {@code null} if not provided by the API
+ * @param hasValueList    Whether the attribute has a value list
+ * @param valueListLevels Number of levels of the attribute's value list, {@literal 0} if it has no value list
+ * @param parentEntityId  Taxonomy code of the parent entity of the attribute
+ */
+public record AttributeMetadata(int id, int taxonomyCode, String dataType, boolean hasValueList, int valueListLevels,
+                                Optional<Integer> parentEntityId) {
+
+    /**
+     * Whether the attribute has a value list with multiple levels.
+     *
+     * @return {@code true} if the value list is hierarchical, {@code false} otherwise
+     */
+    public boolean hasHierarchicalValueList() {
+        return valueListLevels > 1;
+    }
+}
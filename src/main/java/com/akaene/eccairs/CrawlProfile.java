@@ -0,0 +1,35 @@
+package com.akaene.eccairs;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Profile of loading (crawling) a part of the taxonomy from the Taxonomy Browser API.
+ *
+ * @param attributeId    ECCAIRS attribute id whose value list was loaded, {@code null} for the taxonomy tree
+ * @param startedAt      When loading started
+ * @param durationMillis Total loading duration
+ * @param requestCount   Number of requests sent (including retries and requests which failed without a response)
+ * @param maxDepth       Maximum value list depth reached. Top level values have depth 1, the taxonomy tree depth 0
+ * @param bytesReceived  Total size of received response bodies
+ * @param networkMillis  Time spent waiting for responses
+ * @param parsingMillis  Time spent parsing responses. For the taxonomy tree, this includes extraction of its entities
+ * @param retries        Number of retried requests
+ * @param slowestNodes   Slowest requests, the slowest first
+ * @param failed         Whether loading failed. The profile then covers only requests made before the failure
+ */
+public record CrawlProfile(Integer attributeId, Instant startedAt, long durationMillis, int requestCount,
+                           int maxDepth, long bytesReceived, long networkMillis, long parsingMillis, int retries,
+                           List<NodeTiming> slowestNodes, boolean failed) {
+
+    /**
+     * Timing of a single request.
+     *
+     * @param uri           Requested URI
+     * @param depth         Value list depth of the request
+     * @param networkMillis Time spent waiting for the response
+     * @param bytes         Response body size
+     */
+    public record NodeTiming(String uri, int depth, long networkMillis, long bytes) {
+    }
+}
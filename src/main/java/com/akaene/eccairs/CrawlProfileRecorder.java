@@ -0,0 +1,106 @@
+package com.akaene.eccairs;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects data for a {@link CrawlProfile}.
+ * <p>
+ * A recorder is used by a single loading operation and is not thread-safe.
+ */
+class CrawlProfileRecorder {
+
+    /**
+     * How many slowest requests to keep.
+     */
+    static final int SLOWEST_NODE_COUNT = 5;
+
+    private final Integer attributeId;
+
+    private final Instant startedAt = Instant.now();
+
+    private final long start = System.nanoTime();
+
+    private final PriorityQueue<CrawlProfile.NodeTiming> slowestNodes = new PriorityQueue<>(
+            Comparator.comparingLong(CrawlProfile.NodeTiming::networkMillis));
+
+    private int depth;
+
+    private int requestCount;
+
+    private int maxDepth;
+
+    private long bytesReceived;
+
+    private long networkNanos;
+
+    private long parsingNanos;
+
+    private int retries;
+
+    CrawlProfileRecorder(Integer attributeId) {
+        this.attributeId = attributeId;
+    }
+
+    /**
+     * Sets value list depth of subsequently recorded requests.
+     *
+     * @param depth Current depth
+     */
+    void enterDepth(int depth) {
+        this.depth = depth;
+        this.maxDepth = Math.max(maxDepth, depth);
+    }
+
+    void recordResponse(URI uri, long bytes, long networkNanos) {
+        recordRequest(uri, bytes, networkNanos);
+    }
+
+    /**
+     * Records a request which failed before any response was received, e.g., due to a connection error or timeout.
+     *
+     * @param uri          Requested URI
+     * @param networkNanos Time spent waiting before the request failed
+     */
+    void recordFailedRequest(URI uri, long networkNanos) {
+        recordRequest(uri, 0, networkNanos);
+    }
+
+    private void recordRequest(URI uri, long bytes, long networkNanos) {
+        requestCount++;
+        this.bytesReceived += bytes;
+        this.networkNanos += networkNanos;
+        slowestNodes.add(new CrawlProfile.NodeTiming(uri.toString(), depth,
+                                                     TimeUnit.NANOSECONDS.toMillis(networkNanos), bytes));
+        if (slowestNodes.size() > SLOWEST_NODE_COUNT) {
+            slowestNodes.poll();
+        }
+    }
+
+    void recordParsing(long parsingNanos) {
+        this.parsingNanos += parsingNanos;
+    }
+
+    void recordRetry() {
+        retries++;
+    }
+
+    /**
+     * Creates profile of the recorded requests.
+     *
+     * @param failed Whether loading failed
+     * @return Crawl profile
+     */
+    CrawlProfile finish(boolean failed) {
+        return new CrawlProfile(attributeId, startedAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                                requestCount, maxDepth, bytesReceived, TimeUnit.NANOSECONDS.toMillis(networkNanos),
+                                TimeUnit.NANOSECONDS.toMillis(parsingNanos), retries,
+                                slowestNodes.stream()
+                                            .sorted(Comparator.comparingLong(CrawlProfile.NodeTiming::networkMillis)
+                                                              .reversed())
+                                            .toList(), failed);
+    }
+}
@@ -1,17 +1,18 @@
 package com.akaene.eccairs;
 
+import com.akaene.eccairs.limit.RequestLimiter;
+import com.akaene.eccairs.snapshot.TaxonomySnapshot;
+import com.akaene.eccairs.snapshot.TaxonomySnapshotStore;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
-import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.ParseContext;
 import com.jayway.jsonpath.TypeRef;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
-import com.jayway.jsonpath.spi.json.JsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
-import com.jayway.jsonpath.spi.mapper.MappingProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,15 +22,18 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Reads data from the current ECCAIRS taxonomy using the Taxonomy Browser API.
@@ -40,33 +44,121 @@ public class EccairsTaxonomyService {
 
     private static final int MAX_ATTEMPTS = 5;
 
-    private final String taxonomyServiceUrl;
+    /**
+     * Maximum number of attributes whose metadata is requested in a single request.
+     */
+    private static final int ATTRIBUTE_METADATA_BATCH_SIZE = 200;
+
+    /**
+     * Maximum number of attributes whose first level values are requested in a single request.
+     */
+    private static final int VALUE_LIST_BATCH_SIZE = 50;
 
-    private TaxonomyVersionInfo taxonomyVersion;
+    /**
+     * How long to wait for another instance to publish a taxonomy snapshot before loading the taxonomy directly.
+     */
+    private static final long SNAPSHOT_WAIT_TIMEOUT_MILLIS = 60_000L;
 
-    private DocumentContext taxonomyTree;
+    private static final long SNAPSHOT_POLL_INTERVAL_MILLIS = 1_000L;
 
-    private List<Map<String, Object>> entityCache;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Default maximum time to wait for a response. Generous, as the taxonomy tree response is large.
+     */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final String taxonomyServiceUrl;
+
+    /**
+     * Data of the current taxonomy version, {@code null} if the service is not initialized.
+     * <p>
+     * Replaced as a whole, so concurrent readers never see a partially initialized (or reset) taxonomy.
+     */
+    private volatile TaxonomyState state;
 
     private final ObjectMapper objectMapper;
 
     private final HttpClient httpClient;
 
+    private final ParseContext jsonPath;
+
     /**
-     * Maps ECCAIRS attribute taxonomy identifiers (codes) to ECCAIRS internal identifiers.
-     * <p>
-     * This is a cache for better performance
+     * Maximum time to wait for a response, so that a hung request does not hold its limiter permit forever.
+     */
+    private final Duration requestTimeout;
+
+    /**
+     * Optional store of taxonomy snapshots shared with other instances.
      */
-    private final Map<Integer, Integer> attributeIdMap = new HashMap<>();
+    private final TaxonomySnapshotStore snapshotStore;
+
+    /**
+     * Limits requests sent to the Taxonomy Browser API.
+     */
+    private final RequestLimiter requestLimiter;
+
+    /**
+     * Profiles of the latest value list load of each attribute.
+     */
+    private final Map<Integer, CrawlProfile> valueListProfiles = new ConcurrentHashMap<>();
+
+    /**
+     * Profile of the latest taxonomy tree load.
+     */
+    private volatile CrawlProfile taxonomyTreeProfile;
 
     public EccairsTaxonomyService(String taxonomyServiceUrl) {
+        this(taxonomyServiceUrl, null);
+    }
+
+    /**
+     * Creates taxonomy service which shares the loaded taxonomy with other instances using the specified snapshot
+     * store.
+     * <p>
+     * If a snapshot of the current taxonomy version is available in the store, it is used instead of loading the
+     * taxonomy tree from the Taxonomy Browser API. The same applies to value lists, provided the store supports them.
+     *
+     * @param taxonomyServiceUrl Taxonomy Browser API URL
+     * @param snapshotStore      Taxonomy snapshot store, may be {@code null}
+     */
+    public EccairsTaxonomyService(String taxonomyServiceUrl, TaxonomySnapshotStore snapshotStore) {
+        this(taxonomyServiceUrl, snapshotStore, RequestLimiter.unlimited());
+    }
+
+    /**
+     * Creates taxonomy service which limits requests to the Taxonomy Browser API using the specified limiter.
+     *
+     * @param taxonomyServiceUrl Taxonomy Browser API URL
+     * @param snapshotStore      Taxonomy snapshot store, may be {@code null}
+     * @param requestLimiter     Limiter applied to all requests sent to the Taxonomy Browser API
+     */
+    public EccairsTaxonomyService(String taxonomyServiceUrl, TaxonomySnapshotStore snapshotStore,
+                                  RequestLimiter requestLimiter) {
+        this(taxonomyServiceUrl, snapshotStore, requestLimiter, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Creates taxonomy service which limits requests to the Taxonomy Browser API using the specified limiter and
+     * gives up on requests which do not complete within the specified timeout.
+     *
+     * @param taxonomyServiceUrl Taxonomy Browser API URL
+     * @param snapshotStore      Taxonomy snapshot store, may be {@code null}
+     * @param requestLimiter     Limiter applied to all requests sent to the Taxonomy Browser API
+     * @param requestTimeout     Maximum time to wait for a response to a request
+     */
+    public EccairsTaxonomyService(String taxonomyServiceUrl, TaxonomySnapshotStore snapshotStore,
+                                  RequestLimiter requestLimiter, Duration requestTimeout) {
         if (taxonomyServiceUrl == null || taxonomyServiceUrl.isBlank()) {
             throw new IllegalArgumentException("Taxonomy service '" + taxonomyServiceUrl + "' URL is not valid.");
         }
         this.taxonomyServiceUrl = Objects.requireNonNull(taxonomyServiceUrl);
-        this.httpClient = HttpClient.newHttpClient();
+        this.httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+        this.requestTimeout = Objects.requireNonNull(requestTimeout);
         this.objectMapper = new ObjectMapper();
-        configureJsonPath();
+        this.snapshotStore = snapshotStore;
+        this.requestLimiter = Objects.requireNonNull(requestLimiter);
+        this.jsonPath = createJsonPathContext();
     }
 
     /**
@@ -80,8 +172,7 @@ public class EccairsTaxonomyService {
      * @return Current ECCAIRS taxonomy version label
      */
     public String getTaxonomyVersion() {
-        initializeIfNecessary();
-        return taxonomyVersion.label();
+        return state().version().label();
     }
 
     /**
@@ -92,19 +183,47 @@ public class EccairsTaxonomyService {
      * @return Taxonomy version identifier
      */
     public int getTaxonomyVersionId() {
-        initializeIfNecessary();
-        return taxonomyVersion.id();
+        return state().version().id();
     }
 
-    private void initializeIfNecessary() {
-        if (taxonomyVersion != null) {
-            return;
+    private TaxonomyState state() {
+        final TaxonomyState current = state;
+        if (current != null) {
+            return current;
+        }
+        final TaxonomyVersionInfo version;
+        synchronized (this) {
+            if (state != null) {
+                return state;
+            }
+            LOG.debug("Initializing ECCAIRS taxonomy service.");
+            version = loadTaxonomyVersionInfo();
+            LOG.debug("Current taxonomy: {} (internal ECCAIRS ID: {})", version.label(), version.id());
+            final Optional<ParsedTree> tree = snapshotStore != null ? loadTaxonomyTreeViaSnapshot(version) :
+                                              Optional.of(loadTaxonomyTree());
+            if (tree.isPresent()) {
+                return initialize(version, tree.get());
+            }
+        }
+        // Another instance is loading the taxonomy, wait for its snapshot without holding the monitor
+        LOG.debug("Waiting for snapshot of taxonomy {} to be published.", version.label());
+        final Optional<TaxonomySnapshot> snapshot = awaitSnapshot(version.id());
+        synchronized (this) {
+            if (state != null) {
+                return state;
+            }
+            return initialize(version, snapshot.map(s -> parseTree(s.tree())).orElseGet(() -> {
+                LOG.debug("Snapshot of taxonomy {} not published in time, loading the taxonomy tree directly.",
+                          version.label());
+                return loadTaxonomyTree();
+            }));
         }
-        LOG.debug("Initializing ECCAIRS taxonomy service.");
-        this.taxonomyVersion = loadTaxonomyVersionInfo();
-        LOG.debug("Current taxonomy: {} (internal ECCAIRS ID: {})", taxonomyVersion.label(), taxonomyVersion.id());
-        this.taxonomyTree = loadTaxonomyTree();
-        this.entityCache = new ArrayList<>(taxonomyTree.read("$..[?(@.type==\"E\")]"));
+    }
+
+    private TaxonomyState initialize(TaxonomyVersionInfo version, ParsedTree tree) {
+        final TaxonomyState initialized = new TaxonomyState(version, tree.document(), tree.entities());
+        this.state = initialized;
+        return initialized;
     }
 
     /**
@@ -115,23 +234,116 @@ public class EccairsTaxonomyService {
     public TaxonomyVersionInfo loadTaxonomyVersionInfo() {
         final TaxonomyServiceResponse versionInfo = getResponse(taxonomyServiceUrl + "/version/public");
         assert versionInfo != null;
-        final DocumentContext node = JsonPath.parse(versionInfo.getData().toString());
+        final DocumentContext node = jsonPath.parse(versionInfo.getData().toString());
         final int versionId = node.read("$.id", Integer.class);
         final String versionLabel = node.read("$.version", String.class);
         return new TaxonomyVersionInfo(versionLabel, versionId);
     }
 
-    private DocumentContext loadTaxonomyTree() {
-        final TaxonomyServiceResponse tree = getResponse(taxonomyServiceUrl + "/tree/public");
-        assert tree != null;
-        return JsonPath.parse(tree.getData().toString());
+    /**
+     * Loads the taxonomy tree from the Taxonomy Browser API.
+     * <p>
+     * The whole load, including parsing of the tree and extraction of its entities, is profiled.
+     */
+    private ParsedTree loadTaxonomyTree() {
+        final CrawlProfileRecorder recorder = new CrawlProfileRecorder(null);
+        boolean failed = true;
+        try {
+            final TaxonomyServiceResponse tree = getResponse(taxonomyServiceUrl + "/tree/public", recorder);
+            assert tree != null;
+            final long parsingStart = System.nanoTime();
+            final ParsedTree result = parseTree(tree.getData().toString());
+            recorder.recordParsing(System.nanoTime() - parsingStart);
+            failed = false;
+            return result;
+        } finally {
+            this.taxonomyTreeProfile = recorder.finish(failed);
+            LOG.debug("Taxonomy tree crawled: {}", taxonomyTreeProfile);
+        }
+    }
+
+    private ParsedTree parseTree(String json) {
+        final DocumentContext document = jsonPath.parse(json);
+        final List<Map<String, Object>> entities = document.read("$..[?(@.type==\"E\")]");
+        return new ParsedTree(json, document, List.copyOf(entities));
+    }
+
+    /**
+     * Loads the taxonomy tree from a published snapshot.
+     * <p>
+     * If no snapshot of the specified version exists, the instance which acquires the snapshot store lock loads the
+     * tree from the Taxonomy Browser API and publishes it. Other instances get an empty result and are expected to
+     * wait for the snapshot to appear (see {@link #awaitSnapshot(int)}).
+     */
+    private Optional<ParsedTree> loadTaxonomyTreeViaSnapshot(TaxonomyVersionInfo version) {
+        assert snapshotStore != null;
+        Optional<TaxonomySnapshot> snapshot = snapshotStore.load(version.id());
+        if (snapshot.isPresent()) {
+            LOG.debug("Using published snapshot of taxonomy {}.", version.label());
+            return snapshot.map(s -> parseTree(s.tree()));
+        }
+        final Optional<TaxonomySnapshotStore.Lock> lock;
+        try {
+            lock = snapshotStore.tryLock();
+        } catch (TaxonomyServiceException e) {
+            LOG.warn("Unable to acquire taxonomy snapshot lock, loading the taxonomy tree directly.", e);
+            return Optional.of(loadTaxonomyTree());
+        }
+        if (lock.isPresent()) {
+            try (final TaxonomySnapshotStore.Lock ignored = lock.get()) {
+                // Another instance may have published the snapshot before we acquired the lock
+                snapshot = snapshotStore.load(version.id());
+                if (snapshot.isPresent()) {
+                    return snapshot.map(s -> parseTree(s.tree()));
+                }
+                final ParsedTree tree = loadTaxonomyTree();
+                try {
+                    snapshotStore.publish(new TaxonomySnapshot(version, tree.json()));
+                } catch (TaxonomyServiceException e) {
+                    LOG.warn("Unable to publish taxonomy snapshot.", e);
+                }
+                return Optional.of(tree);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Polls the snapshot store until a snapshot of the specified taxonomy version is published or a timeout elapses.
+     * <p>
+     * Must not be called while holding this service's monitor.
+     */
+    private Optional<TaxonomySnapshot> awaitSnapshot(int versionId) {
+        final long deadline = System.currentTimeMillis() + SNAPSHOT_WAIT_TIMEOUT_MILLIS;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(SNAPSHOT_POLL_INTERVAL_MILLIS);
+                final Optional<TaxonomySnapshot> snapshot = snapshotStore.load(versionId);
+                if (snapshot.isPresent()) {
+                    return snapshot;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.empty();
     }
 
     private TaxonomyServiceResponse getResponse(String uri) {
+        return getResponse(uri, null);
+    }
+
+    /**
+     * Performs a GET request to the specified URI.
+     *
+     * @param uri      Request URI
+     * @param recorder Records the request into a crawl profile, may be {@code null}
+     */
+    private TaxonomyServiceResponse getResponse(String uri, CrawlProfileRecorder recorder) {
         try {
-            final HttpRequest request = HttpRequest.newBuilder().GET().uri(URI.create(uri))
+            final HttpRequest request = HttpRequest.newBuilder().GET().uri(URI.create(uri)).timeout(requestTimeout)
                                                    .header("Accept", "application/json").build();
-            return attemptRequest(request, 0);
+            return attemptRequest(request, 0, recorder);
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -139,26 +351,71 @@ public class EccairsTaxonomyService {
         }
     }
 
-    private TaxonomyServiceResponse attemptRequest(HttpRequest request,
-                                                   int attempt) throws InterruptedException {
+    private TaxonomyServiceResponse attemptRequest(HttpRequest request, int attempt,
+                                                   CrawlProfileRecorder recorder) throws InterruptedException {
         try {
-            final HttpResponse<String> resp = httpClient.send(request, HttpResponse.BodyHandlers.ofString(
-                    StandardCharsets.UTF_8));
+            final HttpResponse<byte[]> resp = send(request, recorder);
             if (resp.statusCode() != 200) {
                 LOG.error("Failed to get response. Received {}.", resp);
                 throw new TaxonomyServiceException("Unable to retrieve response. Got status " + resp.statusCode());
             }
-            return objectMapper.readValue(resp.body(), TaxonomyServiceResponse.class);
+            final long parsingStart = System.nanoTime();
+            final TaxonomyServiceResponse result = objectMapper.readValue(resp.body(), TaxonomyServiceResponse.class);
+            if (recorder != null) {
+                recorder.recordParsing(System.nanoTime() - parsingStart);
+            }
+            return result;
         } catch (RuntimeException | IOException e) {
             if (e.getCause() instanceof ConnectException && attempt <= MAX_ATTEMPTS) {
                 LOG.warn("Failed to get response due to {}. Attempting again in 10s.", e.getMessage());
+                if (recorder != null) {
+                    recorder.recordRetry();
+                }
                 Thread.sleep(10000L);
-                return attemptRequest(request, attempt + 1);
+                return attemptRequest(request, attempt + 1, recorder);
             }
             throw new TaxonomyServiceException("Unable to get response.", e);
         }
     }
 
+    private HttpResponse<byte[]> send(HttpRequest request,
+                                      CrawlProfileRecorder recorder) throws IOException, InterruptedException {
+        final RequestLimiter.Permit permit = requestLimiter.acquire();
+        // I/O errors (including timeouts) are a sign of congestion
+        boolean congested = true;
+        try {
+            final long start = System.nanoTime();
+            final HttpResponse<byte[]> resp;
+            try {
+                resp = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                if (recorder != null) {
+                    recorder.recordFailedRequest(request.uri(), System.nanoTime() - start);
+                }
+                throw e;
+            }
+            if (recorder != null) {
+                recorder.recordResponse(request.uri(), resp.body().length, System.nanoTime() - start);
+            }
+            congested = isCongestion(resp.statusCode());
+            return resp;
+        } catch (InterruptedException e) {
+            congested = false;
+            throw e;
+        } finally {
+            permit.release(!congested);
+        }
+    }
+
+    /**
+     * Checks whether the specified response status indicates upstream congestion.
+     * <p>
+     * Only throttling and server errors do, other client errors (e.g., 404) are caused by the request itself.
+     */
+    private static boolean isCongestion(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
     /**
      * Checks whether the specified attribute has a hierarchical value list.
      * <p>
@@ -169,26 +426,117 @@ public class EccairsTaxonomyService {
      */
     public boolean hasHierarchicalValueList(int attributeId) {
         LOG.trace("Checking hierarchy of value list of attribute {}.", attributeId);
-        initializeIfNecessary();
-        final int internalAttId = resolveInternalEccairsId(attributeId);
+        return getAttributeMetadata(attributeId).hasHierarchicalValueList();
+    }
+
+    /**
+     * Gets metadata of the specified attribute.
+     * <p>
+     * Metadata are cached for the current taxonomy version. To avoid requesting metadata of attributes one by one,
+     * use {@link #loadAttributeMetadata(Collection)}.
+     *
+     * @param attributeId ECCAIRS attribute id, e.g., for attribute A-431 it would be 431
+     * @return Attribute metadata
+     */
+    public AttributeMetadata getAttributeMetadata(int attributeId) {
+        final TaxonomyState state = state();
+        final AttributeMetadata cached = state.attributeMetadata().get(attributeId);
+        if (cached != null) {
+            return cached;
+        }
+        loadAttributeMetadata(state, List.of(attributeId));
+        final AttributeMetadata result = state.attributeMetadata().get(attributeId);
+        if (result == null) {
+            throw new TaxonomyServiceException("Metadata of attribute " + attributeId + " not found!");
+        }
+        return result;
+    }
+
+    /**
+     * Loads metadata of the specified attributes in bulk, caching them for the current taxonomy version.
+     * <p>
+     * Metadata of attributes which are already cached are not loaded again.
+     *
+     * @param attributeIds ECCAIRS attribute ids, e.g., for attribute A-431 it would be 431
+     */
+    public void loadAttributeMetadata(Collection<Integer> attributeIds) {
+        loadAttributeMetadata(state(), attributeIds);
+    }
+
+    private void loadAttributeMetadata(TaxonomyState state, Collection<Integer> attributeIds) {
+        final List<Integer> toLoad = attributeIds.stream().distinct()
+                                                 .filter(id -> !state.attributeMetadata().containsKey(id)).toList();
+        for (int i = 0; i < toLoad.size(); i += ATTRIBUTE_METADATA_BATCH_SIZE) {
+            loadAttributeMetadataBatch(state, toLoad.subList(i, Math.min(toLoad.size(),
+                                                                        i + ATTRIBUTE_METADATA_BATCH_SIZE)));
+        }
+    }
+
+    private void loadAttributeMetadataBatch(TaxonomyState state, List<Integer> attributeIds) {
+        LOG.trace("Loading metadata of attributes {}.", attributeIds);
+        final List<Integer> internalIds = attributeIds.stream().map(id -> resolveInternalEccairsId(state, id))
+                                                      .toList();
+        final Map<Integer, Integer> taxonomyCodes = new HashMap<>();
+        for (int i = 0; i < internalIds.size(); i++) {
+            taxonomyCodes.put(internalIds.get(i), attributeIds.get(i));
+        }
+        final String payload = jsonPath.parse(Map.of(
+                "attributeIdentifiers", internalIds,
+                "taxonomyId", state.version().id()
+        )).jsonString();
+        final TaxonomyServiceResponse response = postRequest(taxonomyServiceUrl + "/attributes/public/byIDs", payload);
+        assert response.getData().isArray();
+        for (JsonNode item : response.getData()) {
+            // Items are matched only by the identifiers they contain, the order of the response is not relied upon
+            final Integer taxonomyCode = item.has("id") ? taxonomyCodes.get(item.get("id").asInt()) :
+                                         item.has("taxonomyCode") ? item.get("taxonomyCode").asInt() : null;
+            if (taxonomyCode == null || !attributeIds.contains(taxonomyCode)) {
+                LOG.warn("Unable to match attribute metadata {} to any of the requested attributes {}.", item,
+                         attributeIds);
+                continue;
+            }
+            final int internalId = internalIds.get(attributeIds.indexOf(taxonomyCode));
+            // byIDs need not provide value list details, the single attribute endpoint does
+            final JsonNode detail = item.has("attributeValueList") ? item : loadAttributeDetail(state, internalId);
+            state.attributeMetadata().put(taxonomyCode, initAttributeMetadata(item, detail, internalId, taxonomyCode));
+        }
+    }
+
+    private JsonNode loadAttributeDetail(TaxonomyState state, int internalId) {
+        LOG.trace("Loading detail of attribute with internal ID {}.", internalId);
         final TaxonomyServiceResponse attribute = getResponse(
-                taxonomyServiceUrl + "/attributes/public/byID/" + internalAttId + "?taxonomyId=" + taxonomyVersion.id());
+                taxonomyServiceUrl + "/attributes/public/byID/" + internalId + "?taxonomyId=" + state.version().id());
         assert attribute != null;
-        try {
-            return JsonPath.parse(attribute.getData().toString())
-                           .read("$.attributeValueList.levels", Integer.class) > 1;
-        } catch (PathNotFoundException e) {
-            LOG.trace("Attribute {} does not have a value list.", attributeId);
-            return false;
-        }
+        return attribute.getData();
+    }
+
+    /**
+     * Creates attribute metadata.
+     *
+     * @param item   Attribute as returned by the byIDs endpoint, provides the parent entity
+     * @param detail Attribute with value list details, either {@code item} or the attribute as returned by the byID
+     *               endpoint
+     */
+    private static AttributeMetadata initAttributeMetadata(JsonNode item, JsonNode detail, int internalId,
+                                                           int taxonomyCode) {
+        final JsonNode valueList = detail.path("attributeValueList");
+        final boolean hasValueList = valueList.isObject();
+        final JsonNode dataType = detail.hasNonNull("dataType") ? detail.get("dataType") : item.path("dataType");
+        final JsonNode parentEntity = item.has("parentEntity") ? item.path("parentEntity") :
+                                      detail.path("parentEntity");
+        return new AttributeMetadata(internalId, taxonomyCode,
+                                     dataType.isMissingNode() || dataType.isNull() ? null : dataType.asText(),
+                                     hasValueList, hasValueList ? valueList.path("levels").asInt() : 0,
+                                     parentEntity.has("taxonomyCode") ?
+                                     Optional.of(parentEntity.get("taxonomyCode").asInt()) : Optional.empty());
     }
 
-    private int resolveInternalEccairsId(int attributeId) {
-        assert taxonomyTree != null;
-        if (attributeIdMap.containsKey(attributeId)) {
-            return attributeIdMap.get(attributeId);
+    private int resolveInternalEccairsId(TaxonomyState state, int attributeId) {
+        final Integer known = state.attributeIds().get(attributeId);
+        if (known != null) {
+            return known;
         }
-        final List<Integer> attIds = taxonomyTree.read("$..[?(@.tc==" + attributeId + " && @.type==\"A\")].id",
+        final List<Integer> attIds = state.tree().read("$..[?(@.tc==" + attributeId + " && @.type==\"A\")].id",
                                                        new TypeRef<>() {
                                                        });
         if (attIds.isEmpty()) {
@@ -196,7 +544,7 @@ public class EccairsTaxonomyService {
                     "Attribute with ECCAIRS ID '" + attIds + "' not found in the taxonomy tree!");
         }
         final Integer attId = attIds.get(0);
-        attributeIdMap.put(attributeId, attId);
+        state.attributeIds().put(attributeId, attId);
         LOG.trace("Internal ECCAIRS ID of attribute {} is {}.", attributeId, attId);
         return attId;
     }
@@ -205,25 +553,180 @@ public class EccairsTaxonomyService {
      * Gets value list of the specified attribute.
      * <p>
      * The list may be hierarchical
+     * <p>
+     * Value lists are loaded only once for the current taxonomy version and attributes sharing the same list of values
+     * share the value list. The returned list and its values are therefore unmodifiable, attempts to modify them throw
+     * {@link UnsupportedOperationException}.
      *
      * @param attributeId ECCAIRS attribute id, e.g., for attribute A-431 it would be 431
-     * @return Value list
+     * @return Value list, empty if the attribute has no value list
      */
     public List<EccairsValue> getValueList(int attributeId) {
+        return getValueList(state(), attributeId);
+    }
+
+    private List<EccairsValue> getValueList(TaxonomyState state, int attributeId) {
         LOG.trace("Loading value list of attribute {}.", attributeId);
-        initializeIfNecessary();
+        final List<EccairsValue> loaded = state.valueLists().get(attributeId);
+        if (loaded != null) {
+            return loaded;
+        }
+        final int versionId = state.version().id();
+        // First level values may have been loaded in bulk by loadValueLists
+        final JsonNode firstLevel = state.firstLevelValues().remove(attributeId);
+        final CrawlProfileRecorder recorder = new CrawlProfileRecorder(attributeId);
+        final Optional<List<EccairsValue>> published;
+        final List<EccairsValue> valueList;
+        boolean failed = true;
+        try {
+            published = loadPublishedValueList(state, attributeId, recorder);
+            valueList = published.isPresent() ? published.get() :
+                        crawlValueList(state, attributeId, firstLevel, recorder);
+            failed = false;
+        } finally {
+            final CrawlProfile profile = recorder.finish(failed);
+            valueListProfiles.put(attributeId, profile);
+            LOG.trace("Value list of attribute {} loaded: {}", attributeId, profile);
+        }
+        if (published.isEmpty()) {
+            publishValueList(versionId, attributeId, valueList);
+        }
+        final List<EccairsValue> existing = state.valueLists().putIfAbsent(attributeId, valueList);
+        return existing != null ? existing : valueList;
+    }
+
+    /**
+     * Loads value lists of the specified attributes, caching them for the current taxonomy version.
+     * <p>
+     * First level values of the attributes are requested in bulk, so that attributes sharing a value list with an
+     * already loaded attribute require no requests of their own. Value lists which are already cached are not loaded
+     * again. Bulk requests are not part of the crawl profiles of the individual value lists.
+     *
+     * @param attributeIds ECCAIRS attribute ids, e.g., for attribute A-431 it would be 431
+     */
+    public void loadValueLists(Collection<Integer> attributeIds) {
+        final TaxonomyState state = state();
+        final List<Integer> toLoad = attributeIds.stream().distinct()
+                                                 .filter(id -> !state.valueLists().containsKey(id)).toList();
+        for (int i = 0; i < toLoad.size(); i += VALUE_LIST_BATCH_SIZE) {
+            loadFirstLevelValuesBatch(state, toLoad.subList(i, Math.min(toLoad.size(), i + VALUE_LIST_BATCH_SIZE)));
+        }
+        toLoad.forEach(id -> getValueList(state, id));
+    }
+
+    private void loadFirstLevelValuesBatch(TaxonomyState state, List<Integer> attributeIds) {
+        LOG.trace("Loading first level values of attributes {}.", attributeIds);
+        final List<Integer> internalIds = attributeIds.stream().map(id -> resolveInternalEccairsId(state, id))
+                                                      .toList();
+        final JsonNode firstLevelValues = loadFirstLevelValues(internalIds, null);
+        for (int i = 0; i < attributeIds.size(); i++) {
+            // Missing node for attributes without a value list
+            state.firstLevelValues().put(attributeIds.get(i),
+                                         firstLevelValues.path(Integer.toString(internalIds.get(i))));
+        }
+    }
+
+    /**
+     * Loads first level values of the specified attributes.
+     *
+     * @param internalIds Internal ECCAIRS identifiers of attributes
+     * @param recorder    Records the request into a crawl profile, may be {@code null}
+     * @return Map of internal attribute identifiers to arrays of their first level values
+     */
+    private JsonNode loadFirstLevelValues(List<Integer> internalIds, CrawlProfileRecorder recorder) {
+        final String attributesList = internalIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        final TaxonomyServiceResponse response = getResponse(
+                taxonomyServiceUrl + "/attributes/public/showFirstLevelValues?attributesList=" + attributesList,
+                recorder);
+        return response.getData().path("map");
+    }
+
+    /**
+     * Loads value list of the specified attribute published by another instance, if available.
+     * <p>
+     * Time spent loading the published value list is recorded as parsing time, as no requests are sent.
+     */
+    private Optional<List<EccairsValue>> loadPublishedValueList(TaxonomyState state, int attributeId,
+                                                                CrawlProfileRecorder recorder) {
+        if (snapshotStore == null) {
+            return Optional.empty();
+        }
+        final long start = System.nanoTime();
+        final Optional<List<EccairsValue>> result = snapshotStore.loadValueList(state.version().id(), attributeId)
+                                                                 .map(list -> intern(state, list));
+        if (result.isPresent()) {
+            LOG.trace("Using published value list of attribute {}.", attributeId);
+            recorder.recordParsing(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Gets an unmodifiable value list equal to the specified one, shared by all attributes with such value list.
+     */
+    private static List<EccairsValue> intern(TaxonomyState state, List<EccairsValue> valueList) {
+        final List<EccairsValue> unmodifiable = UnmodifiableEccairsValue.copyOf(valueList);
+        final List<EccairsValue> existing = state.internedValueLists().putIfAbsent(unmodifiable, unmodifiable);
+        return existing != null ? existing : unmodifiable;
+    }
+
+    /**
+     * Crawls value list of the specified attribute.
+     *
+     * @param loadedFirstLevel First level values of the attribute if they are already loaded, {@code null} otherwise
+     */
+    private List<EccairsValue> crawlValueList(TaxonomyState state, int attributeId, JsonNode loadedFirstLevel,
+                                              CrawlProfileRecorder recorder) {
         final List<EccairsValue> result = new ArrayList<>();
-        final int attId = resolveInternalEccairsId(attributeId);
-        final TaxonomyServiceResponse topLevel = getResponse(
-                taxonomyServiceUrl + "/attributes/public/showFirstLevelValues?attributesList=" + attId);
-        topLevel.getData().get("map").get(Integer.toString(attId)).forEach(v -> {
+        recorder.enterDepth(1);
+        final JsonNode firstLevel;
+        if (loadedFirstLevel != null) {
+            firstLevel = loadedFirstLevel;
+        } else {
+            final int attId = resolveInternalEccairsId(state, attributeId);
+            firstLevel = loadFirstLevelValues(List.of(attId), recorder).path(Integer.toString(attId));
+        }
+        if (!firstLevel.isArray()) {
+            LOG.trace("Attribute {} has no value list.", attributeId);
+            return List.of();
+        }
+        final String valueListKey = valueListKey(firstLevel);
+        final List<EccairsValue> shared = state.sharedValueLists().get(valueListKey);
+        if (shared != null) {
+            LOG.trace("Value list of attribute {} already loaded for another attribute.", attributeId);
+            return shared;
+        }
+        firstLevel.forEach(v -> {
             final EccairsValue ev = initEccairsValue(v);
             result.add(ev);
             if (v.get("hasChild") != null && v.get("hasChild").asBoolean()) {
-                ev.setValues(getValueDescendants(attributeId, v.get("id").intValue(), 2));
+                ev.setValues(getValueDescendants(attributeId, v.get("id").intValue(), 2, recorder));
             }
         });
-        return result;
+        final List<EccairsValue> valueList = intern(state, result);
+        // Another attribute with the same value list may have been loaded concurrently
+        final List<EccairsValue> existing = state.sharedValueLists().putIfAbsent(valueListKey, valueList);
+        return existing != null ? existing : valueList;
+    }
+
+    private void publishValueList(int versionId, int attributeId, List<EccairsValue> valueList) {
+        if (snapshotStore == null) {
+            return;
+        }
+        try {
+            snapshotStore.publishValueList(versionId, attributeId, valueList);
+        } catch (TaxonomyServiceException e) {
+            LOG.warn("Unable to publish value list of attribute {}.", attributeId, e);
+        }
+    }
+
+    /**
+     * Identifies value list by internal ECCAIRS identifiers of its first level values.
+     */
+    private static String valueListKey(JsonNode firstLevelValues) {
+        final StringBuilder sb = new StringBuilder();
+        firstLevelValues.forEach(v -> sb.append(v.get("id").asText()).append(','));
+        return sb.toString();
     }
 
     private EccairsValue initEccairsValue(JsonNode valueNode) {
@@ -239,23 +742,25 @@ public class EccairsTaxonomyService {
         return ev;
     }
 
-    private List<EccairsValue> getValueDescendants(int attributeId, int valId, int level) {
+    private List<EccairsValue> getValueDescendants(int attributeId, int valId, int level,
+                                                   CrawlProfileRecorder recorder) {
         LOG.trace("Loading value list of attribute {}, level {}.", attributeId, level);
         final List<EccairsValue> result = new ArrayList<>();
+        recorder.enterDepth(level);
         final TaxonomyServiceResponse children = getResponse(
-                taxonomyServiceUrl + "/listofvalue/public/childrenLov/" + valId);
+                taxonomyServiceUrl + "/listofvalue/public/childrenLov/" + valId, recorder);
         children.getData().get("list").forEach(v -> {
             final EccairsValue ev = initEccairsValue(v);
             result.add(ev);
             if (v.get("hasChild") != null && v.get("hasChild").asBoolean()) {
-                ev.setValues(getValueDescendants(attributeId, v.get("id").intValue(), level + 1));
+                ev.setValues(getValueDescendants(attributeId, v.get("id").intValue(), level + 1, recorder));
             }
         });
         return result;
     }
 
     public EccairsEntity getEntity(int entityId) {
-        initializeIfNecessary();
+        final List<Map<String, Object>> entityCache = state().entities();
         Map<String, Object> node = entityCache.stream().filter(m -> Objects.equals(m.get("tc"), entityId)).findFirst()
                                               .orElseThrow(() -> new TaxonomyServiceException(
                                                       "Entity with id " + entityId + " not found in the taxonomy tree!"));
@@ -268,8 +773,7 @@ public class EccairsTaxonomyService {
     }
 
     public EccairsAttribute getAttribute(int attributeId) {
-        initializeIfNecessary();
-        List<Map<String, Object>> nodes = taxonomyTree.read("$..[?(@.tc==" + attributeId + " && @.type==\"A\")]");
+        List<Map<String, Object>> nodes = state().tree().read("$..[?(@.tc==" + attributeId + " && @.type==\"A\")]");
         if (nodes.isEmpty()) {
             throw new TaxonomyServiceException("Attribute with id " + attributeId + " not found in the taxonomy tree!");
         }
@@ -285,27 +789,18 @@ public class EccairsTaxonomyService {
      * @return {@code EccairsEntity}
      */
     public EccairsEntity getParentEntity(int attributeId) {
-        LOG.trace("Loading parent entity of attribute {}.", attributeId);
-        initializeIfNecessary();
-        final int attId = resolveInternalEccairsId(attributeId);
-        final int taxonomyVersionId = taxonomyVersion.id();
-        final String payload = JsonPath.parse(Map.of(
-                "attributeIdentifiers", List.of(attId),
-                "taxonomyId", taxonomyVersionId
-        )).jsonString();
-        final TaxonomyServiceResponse response = postRequest(taxonomyServiceUrl + "/attributes/public/byIDs", payload);
-        assert response.getData().isArray();
-        final JsonNode parentEntity = response.getData().get(0).get("parentEntity");
-        final int parentId = parentEntity.get("taxonomyCode").asInt();
+        LOG.trace("Resolving parent entity of attribute {}.", attributeId);
+        final int parentId = getAttributeMetadata(attributeId).parentEntityId().orElseThrow(
+                () -> new TaxonomyServiceException("Attribute " + attributeId + " has no parent entity!"));
         return getEntity(parentId);
     }
 
     private TaxonomyServiceResponse postRequest(String uri, String jsonPayload) {
         try {
-            final HttpRequest request = HttpRequest.newBuilder().uri(URI.create(uri))
+            final HttpRequest request = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(requestTimeout)
                                                    .header("Content-Type", "application/json")
                                                    .POST(HttpRequest.BodyPublishers.ofString(jsonPayload)).build();
-            return attemptRequest(request, 0);
+            return attemptRequest(request, 0, null);
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -313,38 +808,101 @@ public class EccairsTaxonomyService {
         }
     }
 
+    /**
+     * Gets profile of the latest load of the value list of the specified attribute.
+     *
+     * @param attributeId ECCAIRS attribute id, e.g., for attribute A-431 it would be 431
+     * @return Crawl profile, empty if the value list of the attribute has not been loaded yet
+     */
+    public Optional<CrawlProfile> getValueListCrawlProfile(int attributeId) {
+        return Optional.ofNullable(valueListProfiles.get(attributeId));
+    }
+
+    /**
+     * Gets profiles of the latest loads of value lists of all attributes loaded so far.
+     *
+     * @return List of crawl profiles, ordered by attribute id
+     */
+    public List<CrawlProfile> getValueListCrawlProfiles() {
+        return valueListProfiles.values().stream().sorted(Comparator.comparing(CrawlProfile::attributeId)).toList();
+    }
+
+    /**
+     * Gets profile of the latest taxonomy tree load.
+     * <p>
+     * The profile is not available if the tree has not been loaded yet or it was loaded from a snapshot.
+     *
+     * @return Crawl profile, possibly empty
+     */
+    public Optional<CrawlProfile> getTaxonomyTreeCrawlProfile() {
+        return Optional.ofNullable(taxonomyTreeProfile);
+    }
+
     /**
      * Resets this service, forcing it to load the taxonomy version and tree on the next taxonomy access call.
      * <p>
      * This can be used to ensure the latest taxonomy is used by long-running applications.
      */
-    public void reset() {
+    public synchronized void reset() {
         LOG.debug("Resetting taxonomy service");
-        this.taxonomyTree = null;
-        this.taxonomyVersion = null;
-        this.entityCache = null;
+        this.state = null;
     }
 
-    private static void configureJsonPath() {
-        Configuration.setDefaults(new Configuration.Defaults() {
-
-            private final JsonProvider jsonProvider = new JacksonJsonProvider();
-            private final MappingProvider mappingProvider = new JacksonMappingProvider();
-
-            @Override
-            public JsonProvider jsonProvider() {
-                return jsonProvider;
-            }
+    /**
+     * Creates JSON path configuration based on Jackson.
+     * <p>
+     * The configuration is used only by this service instead of being set as the global JSON path default, so that
+     * it does not depend on (or affect) the initialization order of other JSON path users.
+     */
+    private static ParseContext createJsonPathContext() {
+        final Configuration configuration = Configuration.builder()
+                                                         .jsonProvider(new JacksonJsonProvider())
+                                                         .mappingProvider(new JacksonMappingProvider())
+                                                         .options(EnumSet.noneOf(Option.class))
+                                                         .build();
+        return JsonPath.using(configuration);
+    }
 
-            @Override
-            public MappingProvider mappingProvider() {
-                return mappingProvider;
-            }
+    /**
+     * Parsed taxonomy tree.
+     *
+     * @param json     Taxonomy tree JSON, as received from the Taxonomy Browser API
+     * @param document Parsed taxonomy tree
+     * @param entities Entity nodes of the taxonomy tree
+     */
+    private record ParsedTree(String json, DocumentContext document, List<Map<String, Object>> entities) {
+    }
 
-            @Override
-            public Set<Option> options() {
-                return EnumSet.noneOf(Option.class);
-            }
-        });
+    /**
+     * Data valid for a single taxonomy version.
+     *
+     * @param version            Taxonomy version
+     * @param tree               Taxonomy tree
+     * @param entities           Entity nodes of the taxonomy tree
+     * @param attributeIds       Maps ECCAIRS attribute taxonomy identifiers (codes) to ECCAIRS internal identifiers
+     * @param attributeMetadata  Maps ECCAIRS attribute taxonomy identifiers (codes) to attribute metadata
+     * @param sharedValueLists   Loaded value lists, keyed by identifiers of their first level values. Many attributes
+     *                           share the same list of values, this allows loading such list only once and sharing
+     *                           it between the attributes
+     * @param internedValueLists Loaded (crawled or published) value lists mapped to themselves, so that equal value
+     *                           lists are shared even when loaded separately
+     * @param valueLists         Loaded value lists, keyed by ECCAIRS attribute ids
+     * @param firstLevelValues   First level values loaded in bulk and not yet used to crawl value lists, keyed by
+     *                           ECCAIRS attribute ids
+     */
+    private record TaxonomyState(TaxonomyVersionInfo version, DocumentContext tree,
+                                 List<Map<String, Object>> entities,
+                                 Map<Integer, Integer> attributeIds,
+                                 Map<Integer, AttributeMetadata> attributeMetadata,
+                                 Map<String, List<EccairsValue>> sharedValueLists,
+                                 Map<List<EccairsValue>, List<EccairsValue>> internedValueLists,
+                                 Map<Integer, List<EccairsValue>> valueLists,
+                                 Map<Integer, JsonNode> firstLevelValues) {
+
+        TaxonomyState(TaxonomyVersionInfo version, DocumentContext tree, List<Map<String, Object>> entities) {
+            this(version, tree, entities, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                 new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                 new ConcurrentHashMap<>());
+        }
     }
 }
@@ -1,13 +1,26 @@
 package com.akaene.eccairs;
 
+import com.akaene.eccairs.actuate.CrawlProfileEndpoint;
+import com.akaene.eccairs.aot.TaxonomyServiceRuntimeHints;
+import com.akaene.eccairs.cache.TaxonomyValueKeyGenerator;
+import com.akaene.eccairs.limit.RequestLimiter;
+import com.akaene.eccairs.snapshot.FileSystemTaxonomySnapshotStore;
+import com.akaene.eccairs.snapshot.TaxonomySnapshotStore;
 import com.akaene.eccairs.values.ValueListService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
-@Configuration
+import java.nio.file.Path;
+
+@AutoConfiguration
 @EnableConfigurationProperties(TaxonomyServiceConfiguration.class)
+@ImportRuntimeHints(TaxonomyServiceRuntimeHints.class)
 public class TaxonomyServiceAutoconfiguration {
 
     private final TaxonomyServiceConfiguration configuration;
@@ -18,8 +31,30 @@ public class TaxonomyServiceAutoconfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public EccairsTaxonomyService taxonomyService() {
-        return new EccairsTaxonomyService(configuration.getUrl());
+    public RequestLimiter taxonomyRequestLimiter() {
+        final TaxonomyServiceConfiguration.Limiter limiter = configuration.getLimiter();
+        return new RequestLimiter(limiter.getRate(), limiter.getMaxInFlight(), limiter.isAdaptive());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EccairsTaxonomyService taxonomyService(ObjectProvider<TaxonomySnapshotStore> snapshotStore,
+                                                  RequestLimiter requestLimiter) {
+        return new EccairsTaxonomyService(configuration.getUrl(),
+                                          snapshotStore.getIfAvailable(this::defaultSnapshotStore), requestLimiter,
+                                          configuration.getRequestTimeout());
+    }
+
+    /**
+     * Creates the default snapshot store if a snapshot directory is configured.
+     * <p>
+     * Decided when the service is created rather than by a bean condition, because conditions are evaluated at build
+     * time in AOT-processed (native) applications.
+     */
+    private TaxonomySnapshotStore defaultSnapshotStore() {
+        final String directory = configuration.getSnapshot().getDirectory();
+        return directory != null && !directory.isBlank() ? new FileSystemTaxonomySnapshotStore(Path.of(directory)) :
+               null;
     }
 
     @Bean
@@ -27,4 +62,21 @@ public class TaxonomyServiceAutoconfiguration {
     public ValueListService valueListService(EccairsTaxonomyService taxonomyService) {
         return new ValueListService(taxonomyService);
     }
+
+    @Bean(TaxonomyValueKeyGenerator.NAME)
+    @ConditionalOnMissingBean(name = TaxonomyValueKeyGenerator.NAME)
+    public TaxonomyValueKeyGenerator taxonomyValueKeyGenerator() {
+        return new TaxonomyValueKeyGenerator();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class CrawlProfileEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CrawlProfileEndpoint eccairsCrawlProfileEndpoint(EccairsTaxonomyService taxonomyService) {
+            return new CrawlProfileEndpoint(taxonomyService);
+        }
+    }
 }
@@ -2,11 +2,22 @@ package com.akaene.eccairs;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "taxonomy.eccairs")
 public class TaxonomyServiceConfiguration {
 
     private String url;
 
+    /**
+     * Maximum time to wait for a response of the taxonomy service.
+     */
+    private Duration requestTimeout = EccairsTaxonomyService.DEFAULT_REQUEST_TIMEOUT;
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Limiter limiter = new Limiter();
+
     public String getUrl() {
         return url;
     }
@@ -14,4 +25,88 @@ public class TaxonomyServiceConfiguration {
     public void setUrl(String url) {
         this.url = url;
     }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public void setLimiter(Limiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public static class Snapshot {
+
+        /**
+         * Directory in which taxonomy snapshots shared by multiple nodes are stored.
+         * <p>
+         * Snapshot sharing is disabled when not set.
+         */
+        private String directory;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    public static class Limiter {
+
+        /**
+         * Maximum number of requests per second sent to the taxonomy service. Non-positive value means no limit.
+         */
+        private double rate;
+
+        /**
+         * Maximum number of requests in flight. Non-positive value means no limit.
+         */
+        private int maxInFlight;
+
+        /**
+         * Whether to adapt the number of requests in flight to upstream latency and errors.
+         */
+        private boolean adaptive;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+    }
 }
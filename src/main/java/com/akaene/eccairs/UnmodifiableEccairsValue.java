@@ -0,0 +1,117 @@
+package com.akaene.eccairs;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link EccairsValue} which cannot be modified.
+ * <p>
+ * Value lists loaded by {@link EccairsTaxonomyService} are shared by all callers and by attributes with the same
+ * values, so they consist of unmodifiable values. Setters throw {@link UnsupportedOperationException} and child values
+ * are provided as an unmodifiable list.
+ * <p>
+ * Unlike {@link EccairsValue}, unmodifiable values are compared structurally, so that equal value lists loaded
+ * separately (e.g., from published snapshots) can be shared as well.
+ */
+final class UnmodifiableEccairsValue extends EccairsValue {
+
+    private final int hash;
+
+    private UnmodifiableEccairsValue(EccairsValue source, List<EccairsValue> values) {
+        super.setId(source.getId());
+        super.setDescription(source.getDescription());
+        super.setDetailedDescription(source.getDetailedDescription());
+        super.setExplanation(source.getExplanation());
+        super.setDomains(source.getDomains());
+        super.setLevel(source.getLevel());
+        super.setActive(source.isActive());
+        super.setValues(values);
+        this.hash = Objects.hash(source.getId(), source.getDescription(), source.getDetailedDescription(),
+                                 source.getExplanation(), source.getDomains(), source.getLevel(), source.isActive(),
+                                 values);
+    }
+
+    /**
+     * Creates an unmodifiable copy of the specified value list.
+     * <p>
+     * Values which are already unmodifiable are not copied.
+     *
+     * @param valueList Value list to copy
+     * @return Unmodifiable value list
+     */
+    static List<EccairsValue> copyOf(List<EccairsValue> valueList) {
+        return valueList.stream().map(UnmodifiableEccairsValue::copyOf).toList();
+    }
+
+    private static EccairsValue copyOf(EccairsValue value) {
+        if (value instanceof UnmodifiableEccairsValue) {
+            return value;
+        }
+        return new UnmodifiableEccairsValue(value, value.getValues() != null ? copyOf(value.getValues()) : null);
+    }
+
+    @Override
+    public void setId(int id) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setDetailedDescription(String detailedDescription) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setExplanation(String explanation) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setDomains(String domains) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setLevel(String level) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setActive(boolean active) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setValues(List<EccairsValue> values) {
+        throw unmodifiable();
+    }
+
+    private static UnsupportedOperationException unmodifiable() {
+        return new UnsupportedOperationException("Value lists provided by the taxonomy service cannot be modified.");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UnmodifiableEccairsValue that)) {
+            return false;
+        }
+        return hash == that.hash && getId() == that.getId() && isActive() == that.isActive() &&
+                Objects.equals(getDescription(), that.getDescription()) &&
+                Objects.equals(getDetailedDescription(), that.getDetailedDescription()) &&
+                Objects.equals(getExplanation(), that.getExplanation()) &&
+                Objects.equals(getDomains(), that.getDomains()) && Objects.equals(getLevel(), that.getLevel()) &&
+                Objects.equals(getValues(), that.getValues());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
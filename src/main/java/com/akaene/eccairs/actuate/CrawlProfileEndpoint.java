@@ -0,0 +1,48 @@
+package com.akaene.eccairs.actuate;
+
+import com.akaene.eccairs.CrawlProfile;
+import com.akaene.eccairs.EccairsTaxonomyService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint exposing profiles of taxonomy and value list loading.
+ */
+@Endpoint(id = "eccairsCrawlProfiles")
+public class CrawlProfileEndpoint {
+
+    private final EccairsTaxonomyService taxonomyService;
+
+    public CrawlProfileEndpoint(EccairsTaxonomyService taxonomyService) {
+        this.taxonomyService = taxonomyService;
+    }
+
+    @ReadOperation
+    public CrawlProfiles crawlProfiles() {
+        return new CrawlProfiles(taxonomyService.getTaxonomyTreeCrawlProfile().orElse(null),
+                                 taxonomyService.getValueListCrawlProfiles());
+    }
+
+    /**
+     * Gets profile of value list loading of the specified attribute.
+     *
+     * @param attributeId ECCAIRS attribute id
+     * @return Crawl profile, {@code null} (resulting in 404) if the value list has not been loaded
+     */
+    @ReadOperation
+    public CrawlProfile valueListCrawlProfile(@Selector int attributeId) {
+        return taxonomyService.getValueListCrawlProfile(attributeId).orElse(null);
+    }
+
+    /**
+     * Crawl profiles of the taxonomy service.
+     *
+     * @param taxonomyTree Profile of the taxonomy tree load, may be {@code null}
+     * @param valueLists   Profiles of value list loads
+     */
+    public record CrawlProfiles(CrawlProfile taxonomyTree, List<CrawlProfile> valueLists) {
+    }
+}
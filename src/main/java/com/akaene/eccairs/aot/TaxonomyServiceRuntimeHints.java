@@ -0,0 +1,44 @@
+package com.akaene.eccairs.aot;
+
+import com.akaene.eccairs.CrawlProfile;
+import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.TaxonomyServiceResponse;
+import com.akaene.eccairs.cache.TaxonomyValueCacheKey;
+import com.akaene.eccairs.values.ValueListElement;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.ArrayList;
+
+/**
+ * Registers runtime hints needed by the taxonomy service in a native image.
+ * <ul>
+ *     <li>Jackson binding of Taxonomy Browser API responses, crawl profiles (exposed by the actuator endpoint) and
+ *     value lists (stored in taxonomy snapshots),</li>
+ *     <li>Java serialization of cached value lists and cache keys, used when caches are stored out of process.</li>
+ * </ul>
+ */
+public class TaxonomyServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), TaxonomyServiceResponse.class,
+                                                 CrawlProfile.class, EccairsValue.class);
+        // Runtime type of values in loaded value lists, serialized when value lists are published
+        hints.reflection().registerType(TypeReference.of("com.akaene.eccairs.UnmodifiableEccairsValue"),
+                                        MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.serialization().registerType(ValueListElement.class)
+             .registerType(TaxonomyValueCacheKey.class)
+             .registerType(ArrayList.class)
+             .registerType(Integer.class)
+             .registerType(Number.class)
+             // Serialized form of immutable lists returned by Stream.toList()
+             .registerType(TypeReference.of("java.util.CollSer"));
+    }
+}
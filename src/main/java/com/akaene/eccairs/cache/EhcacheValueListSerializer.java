@@ -0,0 +1,53 @@
+package com.akaene.eccairs.cache;
+
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ehcache {@link Serializer} based on {@link ValueListCodec}.
+ * <p>
+ * Can be configured for keys and values of the {@literal valueLists} and {@literal taxonomyValues} caches when they
+ * use an off-heap or disk tier. For example, in {@literal ehcache.xml}:
+ * <pre>{@code
+ * <serializer type="java.util.List">com.akaene.eccairs.cache.EhcacheValueListSerializer</serializer>
+ * }</pre>
+ */
+public class EhcacheValueListSerializer implements Serializer<Object> {
+
+    private final ValueListCodec codec = new ValueListCodec();
+
+    /**
+     * Constructor required by Ehcache.
+     *
+     * @param classLoader Class loader, not used by this serializer
+     */
+    public EhcacheValueListSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    public ByteBuffer serialize(Object object) throws SerializerException {
+        try {
+            return ByteBuffer.wrap(codec.encode(object));
+        } catch (IllegalArgumentException e) {
+            throw new SerializerException(e);
+        }
+    }
+
+    @Override
+    public Object read(ByteBuffer binary) throws SerializerException {
+        final byte[] data = new byte[binary.remaining()];
+        binary.get(data);
+        try {
+            return codec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializerException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object, ByteBuffer binary) throws SerializerException {
+        return object.equals(read(binary.duplicate()));
+    }
+}
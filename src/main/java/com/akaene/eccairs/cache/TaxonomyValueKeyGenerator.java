@@ -0,0 +1,25 @@
+package com.akaene.eccairs.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Generates {@link TaxonomyValueCacheKey}s from (attribute id, value id) method arguments.
+ * <p>
+ * Used instead of a SpEL key expression, which requires reflection and is thus unfriendly to ahead-of-time
+ * compilation.
+ */
+public class TaxonomyValueKeyGenerator implements KeyGenerator {
+
+    /**
+     * Name of the key generator bean.
+     */
+    public static final String NAME = "taxonomyValueKeyGenerator";
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        assert params.length == 2;
+        return new TaxonomyValueCacheKey((Integer) params[0], (Integer) params[1]);
+    }
+}
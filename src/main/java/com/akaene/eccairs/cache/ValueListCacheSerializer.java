@@ -0,0 +1,42 @@
+package com.akaene.eccairs.cache;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Spring {@link Serializer} and {@link Deserializer} based on {@link ValueListCodec}.
+ * <p>
+ * Handles values and keys of the {@literal valueLists} and {@literal taxonomyValues} caches. It can be plugged into
+ * cache implementations accepting Spring serializers or converters (see {@link SerializingConverter} and
+ * {@link DeserializingConverter}), for example, Spring Data Redis {@code JdkSerializationRedisSerializer}.
+ */
+public class ValueListCacheSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    private final ValueListCodec codec = new ValueListCodec();
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        outputStream.write(serializeToByteArray(object));
+    }
+
+    @Override
+    public byte[] serializeToByteArray(Object object) {
+        return codec.encode(object);
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        return deserializeFromByteArray(inputStream.readAllBytes());
+    }
+
+    @Override
+    public Object deserializeFromByteArray(byte[] serialized) {
+        return codec.decode(serialized);
+    }
+}
@@ -0,0 +1,521 @@
+package com.akaene.eccairs.cache;
+
+import com.akaene.eccairs.values.ValueListElement;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary codec for cached value lists, value list elements and cache keys.
+ * <p>
+ * Intended for caches stored out of process (e.g., Redis or an off-heap/disk Ehcache tier), where the default Java
+ * serialization produces bulky payloads. The format is versioned, each payload starts with a magic byte, format
+ * version and payload type. Integers are written as (zig-zag) varints, value list labels and descriptions are stored
+ * in a string table, element identifiers are delta-encoded and parents are stored as backward references to the
+ * preceding elements. Descendants of value list elements are not stored when they can be reconstructed from the
+ * parent references.
+ */
+public class ValueListCodec {
+
+    static final byte MAGIC = (byte) 0xEC;
+
+    static final byte VERSION = 1;
+
+    static final byte TYPE_VALUE_LIST = 1;
+    static final byte TYPE_ELEMENT = 2;
+    static final byte TYPE_CACHE_KEY = 3;
+    static final byte TYPE_INTEGER = 4;
+
+    private static final int PARENT_NONE = 0;
+    private static final int PARENT_ID = 1;
+    private static final int PARENT_REFERENCE_OFFSET = 2;
+
+    private static final int DESCENDANTS_NONE = 0;
+    private static final int DESCENDANTS_DERIVED = 1;
+    private static final int DESCENDANTS_EXPLICIT = 2;
+
+    /**
+     * Checks whether the specified object can be encoded by this codec.
+     * <p>
+     * Elements of value lists must have identifiers, as the identifiers are delta-encoded.
+     *
+     * @param value Object to check
+     * @return {@code true} if the object is supported, {@code false} otherwise
+     */
+    public boolean supports(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().allMatch(e -> e instanceof ValueListElement element && element.getId() != null);
+        }
+        return value instanceof ValueListElement || value instanceof TaxonomyValueCacheKey ||
+                value instanceof Integer;
+    }
+
+    /**
+     * Encodes the specified value list, value list element, cache key or integer.
+     *
+     * @param value Value to encode
+     * @return Encoded value
+     * @throws IllegalArgumentException If the value is not {@link #supports(Object) supported}
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        if (!supports(value)) {
+            throw new IllegalArgumentException("Unsupported value " + value + ".");
+        }
+        if (value instanceof List<?> list) {
+            return encodeValueList((List<ValueListElement>) list);
+        } else if (value instanceof ValueListElement element) {
+            return encodeElement(element);
+        } else if (value instanceof TaxonomyValueCacheKey key) {
+            return encodeCacheKey(key);
+        }
+        final Writer out = new Writer(TYPE_INTEGER);
+        out.writeNullableInt((Integer) value);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes value encoded by {@link #encode(Object)}.
+     *
+     * @param data Encoded value
+     * @return Decoded value
+     * @throws IllegalArgumentException If the data is not a valid payload
+     */
+    public Object decode(byte[] data) {
+        final Reader in = new Reader(data);
+        return switch (in.type) {
+            case TYPE_VALUE_LIST -> readValueList(in);
+            case TYPE_ELEMENT -> readElement(in);
+            case TYPE_CACHE_KEY -> readCacheKey(in);
+            case TYPE_INTEGER -> in.readNullableInt();
+            default -> throw new IllegalArgumentException("Unsupported payload type " + in.type + ".");
+        };
+    }
+
+    /**
+     * Encodes the specified value list.
+     *
+     * @param valueList Value list, as provided by {@link com.akaene.eccairs.values.ValueListService}
+     * @return Encoded value list
+     * @throws IllegalArgumentException If an element of the value list has no identifier
+     */
+    public byte[] encodeValueList(List<ValueListElement> valueList) {
+        Objects.requireNonNull(valueList);
+        final Writer out = new Writer(TYPE_VALUE_LIST);
+        final Integer attributeId = valueList.isEmpty() ? null : valueList.get(0).getAttributeId();
+        final boolean uniformAttribute = valueList.stream().allMatch(e -> Objects.equals(attributeId,
+                                                                                         e.getAttributeId()));
+        out.writeBoolean(uniformAttribute);
+        out.writeNullableInt(attributeId);
+
+        final StringTable strings = new StringTable();
+        valueList.forEach(e -> {
+            strings.add(e.getLabel());
+            strings.add(e.getDescription());
+        });
+        out.writeVarInt(strings.values.size());
+        strings.values.forEach(out::writeString);
+
+        final int[] parentIndexes = resolveParentIndexes(valueList);
+        final List<List<Integer>> derivedDescendants = deriveDescendants(valueList, parentIndexes);
+        out.writeVarInt(valueList.size());
+        int previousId = 0;
+        for (int i = 0; i < valueList.size(); i++) {
+            final ValueListElement e = valueList.get(i);
+            if (e.getId() == null) {
+                throw new IllegalArgumentException("Value list element " + i + " has no identifier.");
+            }
+            final int id = e.getId();
+            out.writeSignedVarInt(id - previousId);
+            previousId = id;
+            out.writeVarInt(strings.indexOf(e.getLabel()));
+            out.writeVarInt(strings.indexOf(e.getDescription()));
+            if (!uniformAttribute) {
+                out.writeNullableInt(e.getAttributeId());
+            }
+            if (e.getParent() == null) {
+                out.writeVarInt(PARENT_NONE);
+            } else if (parentIndexes[i] >= 0) {
+                out.writeVarInt(PARENT_REFERENCE_OFFSET + i - parentIndexes[i]);
+            } else {
+                out.writeVarInt(PARENT_ID);
+                out.writeSignedVarInt(e.getParent());
+            }
+            if (e.getDescendants() == null) {
+                out.writeVarInt(DESCENDANTS_NONE);
+            } else if (e.getDescendants().equals(derivedDescendants.get(i))) {
+                out.writeVarInt(DESCENDANTS_DERIVED);
+            } else {
+                out.writeVarInt(DESCENDANTS_EXPLICIT);
+                out.writeIntList(e.getDescendants());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Finds index of the parent of each element among the elements preceding it.
+     *
+     * @return Parent indexes, {@literal -1} when the parent is not found
+     */
+    private static int[] resolveParentIndexes(List<ValueListElement> valueList) {
+        final int[] result = new int[valueList.size()];
+        final Map<Integer, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < valueList.size(); i++) {
+            final ValueListElement e = valueList.get(i);
+            result[i] = e.getParent() != null ? indexes.getOrDefault(e.getParent(), -1) : -1;
+            indexes.put(e.getId(), i);
+        }
+        return result;
+    }
+
+    /**
+     * Derives (transitive) descendants of each element from parent references, in list order.
+     */
+    private static List<List<Integer>> deriveDescendants(List<ValueListElement> valueList, int[] parentIndexes) {
+        final List<List<Integer>> result = new ArrayList<>(valueList.size());
+        for (int i = 0; i < valueList.size(); i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i = 0; i < valueList.size(); i++) {
+            for (int p = parentIndexes[i]; p >= 0; p = parentIndexes[p]) {
+                result.get(p).add(valueList.get(i).getId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decodes value list encoded by {@link #encodeValueList(List)}.
+     *
+     * @param data Encoded value list
+     * @return Decoded value list
+     */
+    public List<ValueListElement> decodeValueList(byte[] data) {
+        final Reader in = new Reader(data);
+        in.expectType(TYPE_VALUE_LIST);
+        return readValueList(in);
+    }
+
+    private static List<ValueListElement> readValueList(Reader in) {
+        final boolean uniformAttribute = in.readBoolean();
+        final Integer attributeId = in.readNullableInt();
+        final String[] strings = new String[in.readLength() + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = in.readString();
+        }
+        final int size = in.readLength();
+        final List<ValueListElement> result = new ArrayList<>(size);
+        final int[] parentIndexes = new int[size];
+        final boolean[] derived = new boolean[size];
+        int previousId = 0;
+        for (int i = 0; i < size; i++) {
+            final int id = previousId + in.readSignedVarInt();
+            previousId = id;
+            final String label = strings[in.readIndex(strings.length)];
+            final String description = strings[in.readIndex(strings.length)];
+            final ValueListElement e = new ValueListElement(id, label, description,
+                                                            uniformAttribute ? attributeId : in.readNullableInt());
+            final int parent = in.readVarInt();
+            parentIndexes[i] = -1;
+            if (parent == PARENT_ID) {
+                e.setParent(in.readSignedVarInt());
+            } else if (parent >= PARENT_REFERENCE_OFFSET) {
+                parentIndexes[i] = i - (parent - PARENT_REFERENCE_OFFSET);
+                if (parentIndexes[i] < 0 || parentIndexes[i] >= i) {
+                    throw new IllegalArgumentException("Invalid parent reference " + parent + " of element " + i + ".");
+                }
+                e.setParent(result.get(parentIndexes[i]).getId());
+            } else if (parent != PARENT_NONE) {
+                throw new IllegalArgumentException("Invalid parent encoding.");
+            }
+            switch (in.readVarInt()) {
+                case DESCENDANTS_NONE -> e.setDescendants(null);
+                case DESCENDANTS_DERIVED -> derived[i] = true;
+                case DESCENDANTS_EXPLICIT -> e.setDescendants(in.readIntList());
+                default -> throw new IllegalArgumentException("Invalid descendants encoding.");
+            }
+            result.add(e);
+        }
+        final List<List<Integer>> derivedDescendants = deriveDescendants(result, parentIndexes);
+        for (int i = 0; i < size; i++) {
+            if (derived[i]) {
+                result.get(i).setDescendants(List.copyOf(derivedDescendants.get(i)));
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Encodes the specified value list element.
+     *
+     * @param element Element to encode
+     * @return Encoded element
+     */
+    public byte[] encodeElement(ValueListElement element) {
+        Objects.requireNonNull(element);
+        final Writer out = new Writer(TYPE_ELEMENT);
+        out.writeNullableInt(element.getId());
+        out.writeNullableString(element.getLabel());
+        out.writeNullableString(element.getDescription());
+        out.writeNullableInt(element.getAttributeId());
+        out.writeNullableInt(element.getParent());
+        out.writeBoolean(element.getDescendants() != null);
+        if (element.getDescendants() != null) {
+            out.writeIntList(element.getDescendants());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes value list element encoded by {@link #encodeElement(ValueListElement)}.
+     *
+     * @param data Encoded element
+     * @return Decoded element
+     */
+    public ValueListElement decodeElement(byte[] data) {
+        final Reader in = new Reader(data);
+        in.expectType(TYPE_ELEMENT);
+        return readElement(in);
+    }
+
+    private static ValueListElement readElement(Reader in) {
+        final ValueListElement result = new ValueListElement(in.readNullableInt(), in.readNullableString(),
+                                                             in.readNullableString(), in.readNullableInt());
+        result.setParent(in.readNullableInt());
+        if (in.readBoolean()) {
+            result.setDescendants(in.readIntList());
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the specified cache key.
+     *
+     * @param key Key to encode
+     * @return Encoded key
+     */
+    public byte[] encodeCacheKey(TaxonomyValueCacheKey key) {
+        Objects.requireNonNull(key);
+        final Writer out = new Writer(TYPE_CACHE_KEY);
+        out.writeNullableInt(key.attributeId());
+        out.writeNullableInt(key.optionId());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes cache key encoded by {@link #encodeCacheKey(TaxonomyValueCacheKey)}.
+     *
+     * @param data Encoded key
+     * @return Decoded key
+     */
+    public TaxonomyValueCacheKey decodeCacheKey(byte[] data) {
+        final Reader in = new Reader(data);
+        in.expectType(TYPE_CACHE_KEY);
+        return readCacheKey(in);
+    }
+
+    private static TaxonomyValueCacheKey readCacheKey(Reader in) {
+        return new TaxonomyValueCacheKey(in.readNullableInt(), in.readNullableInt());
+    }
+
+    /**
+     * Strings used by a value list. Index {@literal 0} represents {@code null}.
+     */
+    private static class StringTable {
+
+        private final List<String> values = new ArrayList<>();
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        void add(String value) {
+            if (value != null && !indexes.containsKey(value)) {
+                values.add(value);
+                indexes.put(value, values.size());
+            }
+        }
+
+        int indexOf(String value) {
+            return value != null ? indexes.get(value) : 0;
+        }
+    }
+
+    private static class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Writer(byte type) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(type);
+        }
+
+        void writeBoolean(boolean value) {
+            out.write(value ? 1 : 0);
+        }
+
+        void writeVarInt(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        void writeSignedVarInt(int value) {
+            writeVarInt(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+        }
+
+        void writeNullableInt(Integer value) {
+            // 0 represents null, other values are shifted by one
+            writeVarInt(value != null ? Integer.toUnsignedLong((value << 1) ^ (value >> 31)) + 1 : 0);
+        }
+
+        void writeString(String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void writeNullableString(String value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeString(value);
+            }
+        }
+
+        void writeIntList(List<Integer> values) {
+            writeVarInt(values.size());
+            int previous = 0;
+            for (Integer v : values) {
+                writeSignedVarInt(v - previous);
+                previous = v;
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static class Reader {
+
+        private final ByteBuffer buffer;
+
+        private final byte type;
+
+        Reader(byte[] data) {
+            this.buffer = ByteBuffer.wrap(Objects.requireNonNull(data));
+            try {
+                if (buffer.get() != MAGIC) {
+                    throw new IllegalArgumentException("Not a value list codec payload.");
+                }
+                final byte version = buffer.get();
+                if (version != VERSION) {
+                    throw new IllegalArgumentException("Unsupported value list codec version " + version + ".");
+                }
+                this.type = buffer.get();
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("Truncated value list codec payload.", e);
+            }
+        }
+
+        void expectType(byte expected) {
+            if (type != expected) {
+                throw new IllegalArgumentException("Expected payload type " + expected + ", got " + type + ".");
+            }
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint.");
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        /**
+         * Reads size of a subsequent sequence of items, each of which takes at least one byte.
+         */
+        int readLength() {
+            final long length = readVarLong();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid length " + length + " in value list codec payload.");
+            }
+            return (int) length;
+        }
+
+        /**
+         * Reads index into a table of the specified size.
+         */
+        int readIndex(int tableSize) {
+            final long index = readVarLong();
+            if (index < 0 || index >= tableSize) {
+                throw new IllegalArgumentException("Invalid index " + index + " in value list codec payload.");
+            }
+            return (int) index;
+        }
+
+        int readSignedVarInt() {
+            final int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        Integer readNullableInt() {
+            final long value = readVarLong();
+            if (value == 0) {
+                return null;
+            }
+            final int zigZag = (int) (value - 1);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        String readString() {
+            final byte[] bytes = new byte[readLength()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String readNullableString() {
+            return readBoolean() ? readString() : null;
+        }
+
+        List<Integer> readIntList() {
+            final int size = readLength();
+            final List<Integer> result = new ArrayList<>(size);
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += readSignedVarInt();
+                result.add(previous);
+            }
+            return List.copyOf(result);
+        }
+
+        private byte readByte() {
+            try {
+                return buffer.get();
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("Truncated value list codec payload.", e);
+            }
+        }
+    }
+}
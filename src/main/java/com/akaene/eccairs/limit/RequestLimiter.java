@@ -0,0 +1,241 @@
+package com.akaene.eccairs.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits requests sent to the Taxonomy Browser API.
+ * <p>
+ * Supports:
+ * <ul>
+ *     <li>Request rate limiting using a token bucket allowing bursts of up to one second worth of requests,</li>
+ *     <li>Limiting the number of requests in flight,</li>
+ *     <li>Adaptive (AIMD) concurrency limit, which is increased additively while requests succeed and halved when
+ *     requests fail or their latency grows significantly above the average latency.</li>
+ * </ul>
+ * Each request must acquire a permit before it is sent and release it once its response is received.
+ */
+public class RequestLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestLimiter.class);
+
+    /**
+     * Initial concurrency limit in adaptive mode.
+     */
+    static final int INITIAL_ADAPTIVE_LIMIT = 4;
+
+    /**
+     * Latency exceeding the average latency by this factor is considered a sign of upstream overload.
+     */
+    private static final double LATENCY_TOLERANCE = 3.0;
+
+    /**
+     * Number of latency samples collected before latency is used to adapt the concurrency limit.
+     */
+    private static final int LATENCY_WARM_UP_SAMPLES = 10;
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private final double requestsPerSecond;
+
+    private final int maxInFlight;
+
+    private final boolean adaptive;
+
+    private double limit;
+
+    private int inFlight;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    private double averageLatencyNanos;
+
+    private int latencySamples;
+
+    /**
+     * Time of the last limit decrease, valid only when {@link #decreased} is {@code true}.
+     * <p>
+     * {@link System#nanoTime()} has an arbitrary origin, so no initial value can be used as "never".
+     */
+    private long lastDecrease;
+
+    private boolean decreased;
+
+    /**
+     * Creates new request limiter.
+     *
+     * @param requestsPerSecond Maximum request rate. Non-positive value means the rate is not limited
+     * @param maxInFlight       Maximum number of requests in flight. Non-positive value means no limit
+     * @param adaptive          Whether to adapt the concurrency limit (up to {@code maxInFlight}) to upstream
+     *                          latency and errors
+     */
+    public RequestLimiter(double requestsPerSecond, int maxInFlight, boolean adaptive) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE;
+        this.adaptive = adaptive;
+        this.limit = adaptive ? Math.min(INITIAL_ADAPTIVE_LIMIT, this.maxInFlight) : this.maxInFlight;
+        this.tokens = Math.max(1, requestsPerSecond);
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Returns a limiter which does not limit requests in any way.
+     *
+     * @return Unlimited request limiter
+     */
+    public static RequestLimiter unlimited() {
+        return new RequestLimiter(0, 0, false);
+    }
+
+    /**
+     * Acquires a permit to send a request, blocking until the request can be sent.
+     *
+     * @return Acquired permit, which has to be released once the request completes
+     * @throws InterruptedException When interrupted while waiting for the permit
+     */
+    public Permit acquire() throws InterruptedException {
+        final long rateWait = reserveToken();
+        if (rateWait > 0) {
+            TimeUnit.NANOSECONDS.sleep(rateWait);
+        }
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * Takes a token from the bucket, possibly running into debt.
+     *
+     * @return Time in nanoseconds to wait before the request can be sent
+     */
+    private long reserveToken() {
+        if (requestsPerSecond <= 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            final long now = System.nanoTime();
+            tokens = Math.min(Math.max(1, requestsPerSecond),
+                              tokens + (now - lastRefill) / 1e9 * requestsPerSecond);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) (-tokens / requestsPerSecond * 1e9);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (adaptive) {
+                adapt(latencyNanos, success);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adapt(long latencyNanos, boolean success) {
+        final boolean latencyExceeded = latencySamples >= LATENCY_WARM_UP_SAMPLES &&
+                latencyNanos > LATENCY_TOLERANCE * averageLatencyNanos;
+        if (success) {
+            averageLatencyNanos = latencySamples == 0 ? latencyNanos :
+                                  averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+            latencySamples++;
+        }
+        if (!success || latencyExceeded) {
+            final long now = System.nanoTime();
+            // Decrease at most once per average round trip, so that a burst of failures does not collapse the limit
+            if (!decreased || now - lastDecrease > averageLatencyNanos) {
+                limit = Math.max(1, limit * DECREASE_FACTOR);
+                lastDecrease = now;
+                decreased = true;
+                LOG.debug("Upstream congestion detected (success: {}, latency: {} ms), decreasing limit to {}.",
+                          success, TimeUnit.NANOSECONDS.toMillis(latencyNanos), (int) limit);
+            }
+        } else {
+            limit = Math.min(maxInFlight, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Gets the current concurrency limit.
+     *
+     * @return Current maximum number of requests in flight
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of requests currently in flight.
+     *
+     * @return Number of acquired and not yet released permits
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Permit to send a request.
+     */
+    public final class Permit {
+
+        private final long acquiredAt;
+
+        private boolean released;
+
+        private Permit(long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        /**
+         * Releases this permit.
+         * <p>
+         * Subsequent calls have no effect.
+         *
+         * @param success Whether the request succeeded. Failures are taken as a sign of upstream overload, so only
+         *                requests which failed due to throttling, server errors or I/O errors (including timeouts)
+         *                should be reported as failed
+         */
+        public void release(boolean success) {
+            if (released) {
+                return;
+            }
+            this.released = true;
+            RequestLimiter.this.release(System.nanoTime() - acquiredAt, success);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.akaene.eccairs.snapshot;
+
+import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.TaxonomyServiceException;
+import com.akaene.eccairs.TaxonomyVersionInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Stores taxonomy snapshots as JSON files in a directory.
+ * <p>
+ * The directory may be located on a volume shared by multiple nodes. Snapshots are written to a temporary file first
+ * and then atomically moved to their final location, so readers never see a partially written snapshot. Locking is
+ * based on an OS-level file lock.
+ * <p>
+ * Value lists are stored in separate files, one per attribute and taxonomy version. Files of other taxonomy versions are
+ * removed when a new taxonomy snapshot is published.
+ */
+public class FileSystemTaxonomySnapshotStore implements TaxonomySnapshotStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileSystemTaxonomySnapshotStore.class);
+
+    private static final String SNAPSHOT_FILE_PREFIX = "taxonomy-";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".json";
+    private static final String VALUE_LIST_FILE_PREFIX = "values-";
+    private static final String LOCK_FILE = "taxonomy.lock";
+
+    private static final TypeReference<List<EccairsValue>> VALUE_LIST_TYPE = new TypeReference<>() {};
+
+    private final Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FileSystemTaxonomySnapshotStore(Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    @Override
+    public Optional<TaxonomySnapshot> load(int taxonomyVersionId) {
+        final Path file = snapshotFile(taxonomyVersionId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            final JsonNode node = objectMapper.readTree(file.toFile());
+            final TaxonomyVersionInfo version = new TaxonomyVersionInfo(node.get("label").asText(),
+                                                                        node.get("id").asInt());
+            LOG.debug("Loaded taxonomy snapshot {}.", file);
+            return Optional.of(new TaxonomySnapshot(version, node.get("tree").toString()));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read taxonomy snapshot {}.", file, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void publish(TaxonomySnapshot snapshot) {
+        Objects.requireNonNull(snapshot);
+        final Path target = snapshotFile(snapshot.version().id());
+        try {
+            Files.createDirectories(directory);
+            final Path tmp = Files.createTempFile(directory, SNAPSHOT_FILE_PREFIX, ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmp);
+                 final JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeStringField("label", snapshot.version().label());
+                gen.writeNumberField("id", snapshot.version().id());
+                gen.writeFieldName("tree");
+                gen.writeRawValue(snapshot.tree());
+                gen.writeEndObject();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("Published taxonomy snapshot {}.", target);
+        } catch (IOException e) {
+            throw new TaxonomyServiceException("Unable to publish taxonomy snapshot " + target + ".", e);
+        }
+        removeOutdatedSnapshots(snapshot.version().id());
+    }
+
+    private void removeOutdatedSnapshots(int currentVersionId) {
+        final String currentSnapshot = snapshotFile(currentVersionId).getFileName().toString();
+        final String currentValueListPrefix = VALUE_LIST_FILE_PREFIX + currentVersionId + "-";
+        final String glob = "{" + SNAPSHOT_FILE_PREFIX + "," + VALUE_LIST_FILE_PREFIX + "}*" + SNAPSHOT_FILE_SUFFIX;
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : files) {
+                final String name = file.getFileName().toString();
+                if (!name.equals(currentSnapshot) && !name.startsWith(currentValueListPrefix)) {
+                    LOG.trace("Removing outdated taxonomy snapshot file {}.", file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to remove outdated taxonomy snapshots.", e);
+        }
+    }
+
+    @Override
+    public Optional<List<EccairsValue>> loadValueList(int taxonomyVersionId, int attributeId) {
+        final Path file = valueListFile(taxonomyVersionId, attributeId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            final List<EccairsValue> valueList = objectMapper.readValue(file.toFile(), VALUE_LIST_TYPE);
+            LOG.trace("Loaded value list snapshot {}.", file);
+            return Optional.of(valueList);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read value list snapshot {}.", file, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void publishValueList(int taxonomyVersionId, int attributeId, List<EccairsValue> valueList) {
+        Objects.requireNonNull(valueList);
+        final Path target = valueListFile(taxonomyVersionId, attributeId);
+        try {
+            Files.createDirectories(directory);
+            final Path tmp = Files.createTempFile(directory, VALUE_LIST_FILE_PREFIX, ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmp)) {
+                objectMapper.writeValue(out, valueList);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            LOG.trace("Published value list snapshot {}.", target);
+        } catch (IOException e) {
+            throw new TaxonomyServiceException("Unable to publish value list snapshot " + target + ".", e);
+        }
+    }
+
+    @Override
+    public Optional<Lock> tryLock() {
+        try {
+            Files.createDirectories(directory);
+            final FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                                                         StandardOpenOption.WRITE);
+            final FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                channel.close();
+                return Optional.empty();
+            }
+            if (lock == null) {
+                channel.close();
+                return Optional.empty();
+            }
+            return Optional.of(() -> {
+                try {
+                    lock.release();
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.warn("Unable to release taxonomy snapshot lock.", e);
+                }
+            });
+        } catch (IOException e) {
+            throw new TaxonomyServiceException("Unable to acquire taxonomy snapshot lock.", e);
+        }
+    }
+
+    private Path snapshotFile(int taxonomyVersionId) {
+        return directory.resolve(SNAPSHOT_FILE_PREFIX + taxonomyVersionId + SNAPSHOT_FILE_SUFFIX);
+    }
+
+    private Path valueListFile(int taxonomyVersionId, int attributeId) {
+        return directory.resolve(
+                VALUE_LIST_FILE_PREFIX + taxonomyVersionId + "-" + attributeId + SNAPSHOT_FILE_SUFFIX);
+    }
+}
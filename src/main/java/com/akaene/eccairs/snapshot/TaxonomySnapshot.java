@@ -0,0 +1,19 @@
+package com.akaene.eccairs.snapshot;
+
+import com.akaene.eccairs.TaxonomyVersionInfo;
+
+import java.util.Objects;
+
+/**
+ * Snapshot of an ECCAIRS taxonomy version.
+ *
+ * @param version Taxonomy version the snapshot captures
+ * @param tree    JSON representation of the taxonomy tree, as returned by the Taxonomy Browser API
+ */
+public record TaxonomySnapshot(TaxonomyVersionInfo version, String tree) {
+
+    public TaxonomySnapshot {
+        Objects.requireNonNull(version);
+        Objects.requireNonNull(tree);
+    }
+}
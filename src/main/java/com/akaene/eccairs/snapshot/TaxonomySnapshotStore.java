@@ -0,0 +1,76 @@
+package com.akaene.eccairs.snapshot;
+
+import com.akaene.eccairs.EccairsValue;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores taxonomy snapshots so that they can be shared by multiple taxonomy service instances.
+ * <p>
+ * Only one instance is expected to load the taxonomy from the Taxonomy Browser API and publish it, the others load
+ * the published snapshot. Instances coordinate using the store-wide {@link #tryLock()} lock.
+ * <p>
+ * Value lists of attributes may be shared as well, so that a value list crawled by one instance need not be crawled by
+ * the others. Stores which do not support this simply do not share value lists.
+ */
+public interface TaxonomySnapshotStore {
+
+    /**
+     * Loads snapshot of the taxonomy version with the specified identifier.
+     *
+     * @param taxonomyVersionId Internal ECCAIRS identifier of the taxonomy version
+     * @return Matching snapshot, empty if no such snapshot has been published (or it cannot be read)
+     */
+    Optional<TaxonomySnapshot> load(int taxonomyVersionId);
+
+    /**
+     * Publishes the specified snapshot, making it available to other taxonomy service instances.
+     *
+     * @param snapshot Snapshot to publish
+     */
+    void publish(TaxonomySnapshot snapshot);
+
+    /**
+     * Loads the value list of the specified attribute published for the specified taxonomy version.
+     *
+     * @param taxonomyVersionId Internal ECCAIRS identifier of the taxonomy version
+     * @param attributeId       ECCAIRS attribute id, e.g., for attribute A-431 it would be 431
+     * @return Published value list, empty if it has not been published (or it cannot be read)
+     */
+    default Optional<List<EccairsValue>> loadValueList(int taxonomyVersionId, int attributeId) {
+        return Optional.empty();
+    }
+
+    /**
+     * Publishes the value list of the specified attribute, making it available to other taxonomy service instances.
+     * <p>
+     * Unlike taxonomy snapshots, value lists are published without holding the store lock, so concurrent publishing of
+     * the same value list must be tolerated.
+     *
+     * @param taxonomyVersionId Internal ECCAIRS identifier of the taxonomy version the value list belongs to
+     * @param attributeId       ECCAIRS attribute id
+     * @param valueList         Value list to publish
+     */
+    default void publishValueList(int taxonomyVersionId, int attributeId, List<EccairsValue> valueList) {
+    }
+
+    /**
+     * Attempts to acquire the lock of this store without waiting.
+     * <p>
+     * The lock should be held while the taxonomy is loaded from the API and published.
+     *
+     * @return The acquired lock, empty if the lock is held by someone else
+     * @throws com.akaene.eccairs.TaxonomyServiceException If the store is not accessible
+     */
+    Optional<Lock> tryLock();
+
+    /**
+     * Acquired store lock. Closing it releases the lock.
+     */
+    interface Lock extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -2,29 +2,40 @@ package com.akaene.eccairs.values;
 
 import com.akaene.eccairs.EccairsTaxonomyService;
 import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.cache.TaxonomyValueKeyGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.lang.NonNull;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Provides value lists.
  */
-@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class ValueListService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ValueListService.class);
 
     private final EccairsTaxonomyService taxonomyService;
 
+    /**
+     * Indexes of values of the current taxonomy version.
+     * <p>
+     * Replaced when the taxonomy version changes.
+     */
+    private volatile ValueIndex valueIndex = new ValueIndex(-1);
+
     @Autowired
     @Lazy
     private ValueListService self;
@@ -43,30 +54,36 @@ public class ValueListService {
      * @param attributeId ECCAIRS attribute id
      * @return Matching value list. The value list may be empty if the specified attribute has no value list
      */
-    @Cacheable(value = "valueLists", key = "#attributeId")
+    @Cacheable(value = "valueLists")
     public List<ValueListElement> getValueList(@NonNull Integer attributeId) {
         Objects.requireNonNull(attributeId);
         LOG.trace("Getting value list for A-{}", attributeId);
+        final Map<EccairsValue, List<Integer>> descendantIds = currentIndex().descendantIds();
         return taxonomyService.getValueList(attributeId).stream()
                               .filter(EccairsValue::isActive)
-                              .flatMap(v -> mapEccairsValue(v, attributeId))
+                              .flatMap(v -> mapEccairsValue(v, attributeId, descendantIds))
                               .toList();
     }
 
-    private Stream<ValueListElement> mapEccairsValue(EccairsValue ev, Integer attributeId) {
-        return recursivelyMapEccairsValue(ev, null, attributeId);
+    private Stream<ValueListElement> mapEccairsValue(EccairsValue ev, Integer attributeId,
+                                                     Map<EccairsValue, List<Integer>> descendantIds) {
+        return recursivelyMapEccairsValue(ev, null, attributeId, descendantIds);
     }
 
     private Stream<ValueListElement> recursivelyMapEccairsValue(EccairsValue ev, Integer parentId,
-                                                                Integer attributeId) {
+                                                                Integer attributeId,
+                                                                Map<EccairsValue, List<Integer>> descendantIds) {
         final ValueListElement to = new ValueListElement(ev.getId(), ev.getDescription(), ev.getDetailedDescription(),
                                                          attributeId);
         final List<ValueListElement> descendants;
         to.setParent(parentId);
         if (ev.getValues() != null) {
-            descendants = ev.getValues().stream().flatMap(d -> recursivelyMapEccairsValue(d, ev.getId(), attributeId))
+            descendants = ev.getValues().stream()
+                            .flatMap(d -> recursivelyMapEccairsValue(d, ev.getId(), attributeId, descendantIds))
                             .toList();
-            to.setDescendants(descendants.stream().map(ValueListElement::getId).toList());
+            // Elements of attributes sharing the value list share the descendant identifiers
+            to.setDescendants(descendantIds.computeIfAbsent(ev, k -> descendants.stream().map(ValueListElement::getId)
+                                                                                 .toList()));
         } else {
             descendants = List.of();
         }
@@ -76,13 +93,14 @@ public class ValueListService {
     /**
      * Gets value list value with the specified identifier.
      * <p>
-     * If caching should be used, configure a cache called {@literal taxonomyValues}.
+     * If caching should be used, configure a cache called {@literal taxonomyValues}. Cache keys are generated by the
+     * {@link TaxonomyValueKeyGenerator} bean.
      *
      * @param attributeId Attribute identifier
      * @param valueId     Value identifier
      * @return Matching value list element
      */
-    @Cacheable(value = "taxonomyValues", key = "new com.akaene.eccairs.cache.TaxonomyValueCacheKey(#attributeId, #valueId)")
+    @Cacheable(value = "taxonomyValues", keyGenerator = TaxonomyValueKeyGenerator.NAME)
     public ValueListElement getValue(@NonNull Integer attributeId, @NonNull Integer valueId) {
         return self.getValueList(attributeId).stream()
                    .filter(v -> v.getId().equals(valueId))
@@ -90,4 +108,137 @@ public class ValueListService {
                    .orElseThrow(() -> new IllegalArgumentException(
                            "No value " + valueId + " in value list for attribute " + attributeId + "."));
     }
+
+    /**
+     * Checks whether the value list of the specified attribute contains a value with the specified identifier.
+     * <p>
+     * Only active values are considered valid, at any level of the value list. Unlike
+     * {@link #getValue(Integer, Integer)}, this method does not throw when the value (or the attribute) does not exist.
+     *
+     * @param attributeId ECCAIRS attribute id
+     * @param valueId     Value identifier
+     * @return {@code true} if the value belongs to the attribute's value list, {@code false} otherwise
+     */
+    public boolean isValid(int attributeId, int valueId) {
+        return Arrays.binarySearch(getValueIds(attributeId), valueId) >= 0;
+    }
+
+    /**
+     * Validates the specified value references against the corresponding attribute value lists.
+     * <p>
+     * The value list of each attribute is loaded at most once, subsequent checks are performed against an in-memory
+     * index of value identifiers.
+     *
+     * @param references Value references to validate
+     * @return Validation results, the i-th element corresponding to the i-th reference
+     * @see #isValid(int, int)
+     */
+    public boolean[] validate(@NonNull List<ValueReference> references) {
+        Objects.requireNonNull(references);
+        preloadValueLists(references);
+        final boolean[] result = new boolean[references.size()];
+        int i = 0;
+        for (ValueReference ref : references) {
+            result[i++] = isValid(ref.attributeId(), ref.valueId());
+        }
+        return result;
+    }
+
+    /**
+     * Loads value lists of not yet indexed attributes of the specified references in bulk.
+     */
+    private void preloadValueLists(List<ValueReference> references) {
+        final ValueIndex index = currentIndex();
+        final List<Integer> toLoad = references.stream().map(ValueReference::attributeId).distinct()
+                                               .filter(id -> !index.valueIds().containsKey(id)).toList();
+        if (toLoad.size() < 2) {
+            return;
+        }
+        try {
+            taxonomyService.loadValueLists(toLoad);
+        } catch (IllegalArgumentException e) {
+            // Unknown attributes are handled when validating the individual references
+            LOG.trace("Unable to load value lists of attributes {} in bulk.", toLoad, e);
+        }
+    }
+
+    private ValueIndex currentIndex() {
+        final int versionId = taxonomyService.getTaxonomyVersionId();
+        ValueIndex index = valueIndex;
+        if (index.versionId() != versionId) {
+            LOG.trace("Taxonomy version changed to {}, discarding value index.", versionId);
+            index = new ValueIndex(versionId);
+            this.valueIndex = index;
+        }
+        return index;
+    }
+
+    private int[] getValueIds(int attributeId) {
+        final ValueIndex index = currentIndex();
+        final int[] cached = index.valueIds().get(attributeId);
+        if (cached != null) {
+            return cached;
+        }
+        // Loaded outside of the map's compute as it may require crawling the value list
+        final int[] valueIds = buildValueIdIndex(index, attributeId);
+        final int[] existing = index.valueIds().putIfAbsent(attributeId, valueIds);
+        return existing != null ? existing : valueIds;
+    }
+
+    /**
+     * Builds sorted identifiers of active values of the specified attribute.
+     * <p>
+     * The index is built directly from the taxonomy service, so that it is not affected by the {@literal valueLists}
+     * cache, which may contain value lists of a previous taxonomy version. Descendants of inactive values are
+     * considered inactive as well. Attributes sharing a value list share its index.
+     */
+    private int[] buildValueIdIndex(ValueIndex index, int attributeId) {
+        LOG.trace("Building value index for A-{}", attributeId);
+        try {
+            return index.sharedValueIds().computeIfAbsent(taxonomyService.getValueList(attributeId),
+                                                          ValueListService::sortedActiveValueIds);
+        } catch (IllegalArgumentException e) {
+            LOG.trace("Attribute {} not found, no values are valid for it.", attributeId);
+            return new int[0];
+        }
+    }
+
+    private static int[] sortedActiveValueIds(List<EccairsValue> valueList) {
+        return valueList.stream()
+                        .flatMapToInt(ValueListService::activeValueIds)
+                        .sorted()
+                        .distinct()
+                        .toArray();
+    }
+
+    private static IntStream activeValueIds(EccairsValue ev) {
+        if (!ev.isActive()) {
+            return IntStream.empty();
+        }
+        final IntStream descendants = ev.getValues() != null ?
+                                      ev.getValues().stream().flatMapToInt(ValueListService::activeValueIds) :
+                                      IntStream.empty();
+        return IntStream.concat(IntStream.of(ev.getId()), descendants);
+    }
+
+    /**
+     * Indexes of values of the specified taxonomy version.
+     * <p>
+     * Value lists provided by the taxonomy service are shared by attributes with the same values, so data derived
+     * from them are keyed by the value list (value) instances and shared as well.
+     *
+     * @param versionId      Taxonomy version identifier
+     * @param valueIds       Sorted identifiers of active values of each attribute
+     * @param sharedValueIds Sorted identifiers of active values of each value list
+     * @param descendantIds  Identifiers of (transitive) descendants of each value
+     */
+    private record ValueIndex(int versionId, Map<Integer, int[]> valueIds,
+                              Map<List<EccairsValue>, int[]> sharedValueIds,
+                              Map<EccairsValue, List<Integer>> descendantIds) {
+
+        ValueIndex(int versionId) {
+            this(versionId, new ConcurrentHashMap<>(), Collections.synchronizedMap(new IdentityHashMap<>()),
+                 Collections.synchronizedMap(new IdentityHashMap<>()));
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.akaene.eccairs.values;
+
+/**
+ * Reference to a value from the value list of an attribute.
+ *
+ * @param attributeId ECCAIRS attribute id, e.g., for attribute A-431 it would be 431
+ * @param valueId     Value identifier
+ */
+public record ValueReference(int attributeId, int valueId) {
+}
@@ -0,0 +1,75 @@
+package com.akaene.eccairs;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrawlProfileRecorderTest {
+
+    @Test
+    void finishSummarizesRecordedRequests() {
+        final CrawlProfileRecorder sut = new CrawlProfileRecorder(431);
+        sut.enterDepth(1);
+        sut.recordResponse(URI.create("http://localhost/first"), 100, TimeUnit.MILLISECONDS.toNanos(10));
+        sut.recordParsing(TimeUnit.MILLISECONDS.toNanos(1));
+        sut.enterDepth(3);
+        sut.recordRetry();
+        sut.recordResponse(URI.create("http://localhost/second"), 50, TimeUnit.MILLISECONDS.toNanos(30));
+        sut.enterDepth(2);
+        sut.recordResponse(URI.create("http://localhost/third"), 25, TimeUnit.MILLISECONDS.toNanos(20));
+
+        final CrawlProfile result = sut.finish(false);
+        assertEquals(431, result.attributeId());
+        assertFalse(result.failed());
+        assertEquals(3, result.requestCount());
+        assertEquals(3, result.maxDepth());
+        assertEquals(175, result.bytesReceived());
+        assertEquals(60, result.networkMillis());
+        assertEquals(1, result.parsingMillis());
+        assertEquals(1, result.retries());
+        assertEquals("http://localhost/second", result.slowestNodes().get(0).uri());
+        assertEquals(3, result.slowestNodes().get(0).depth());
+    }
+
+    @Test
+    void finishKeepsOnlySlowestNodes() {
+        final CrawlProfileRecorder sut = new CrawlProfileRecorder(null);
+        for (int i = 0; i < CrawlProfileRecorder.SLOWEST_NODE_COUNT * 2; i++) {
+            sut.recordResponse(URI.create("http://localhost/" + i), 1, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        final CrawlProfile result = sut.finish(false);
+        assertEquals(CrawlProfileRecorder.SLOWEST_NODE_COUNT, result.slowestNodes().size());
+        assertEquals(CrawlProfileRecorder.SLOWEST_NODE_COUNT * 2 - 1, result.slowestNodes().get(0).networkMillis());
+    }
+
+    @Test
+    void finishMarksProfileOfFailedLoadAsFailed() {
+        final CrawlProfileRecorder sut = new CrawlProfileRecorder(431);
+        sut.enterDepth(1);
+        sut.recordResponse(URI.create("http://localhost/first"), 100, TimeUnit.MILLISECONDS.toNanos(10));
+
+        final CrawlProfile result = sut.finish(true);
+        assertTrue(result.failed());
+        assertEquals(1, result.requestCount());
+    }
+
+    @Test
+    void finishCountsRequestsFailedWithoutResponse() {
+        final CrawlProfileRecorder sut = new CrawlProfileRecorder(null);
+        sut.recordFailedRequest(URI.create("http://localhost/tree"), TimeUnit.MILLISECONDS.toNanos(100));
+        sut.recordRetry();
+        sut.recordResponse(URI.create("http://localhost/tree"), 1000, TimeUnit.MILLISECONDS.toNanos(20));
+
+        final CrawlProfile result = sut.finish(false);
+        assertEquals(2, result.requestCount());
+        assertEquals(1, result.retries());
+        assertEquals(1000, result.bytesReceived());
+        assertEquals(120, result.networkMillis());
+        assertEquals(0, result.slowestNodes().get(0).bytes());
+    }
+}
@@ -0,0 +1,115 @@
+package com.akaene.eccairs;
+
+import com.akaene.eccairs.snapshot.FileSystemTaxonomySnapshotStore;
+import com.akaene.eccairs.snapshot.TaxonomySnapshot;
+import com.akaene.eccairs.snapshot.TaxonomySnapshotStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of sharing the taxonomy between {@link EccairsTaxonomyService} instances via a snapshot store.
+ */
+class EccairsTaxonomyServiceSnapshotTest {
+
+    private static final String TREE_ENDPOINT = "/tree/public";
+
+    private static final String CHILDREN_ENDPOINT = "/listofvalue/public/childrenLov";
+
+    @TempDir
+    Path directory;
+
+    private TaxonomyStubServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.stub = new TaxonomyStubServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void secondInstanceUsesTreeAndValueListsPublishedByFirstInstance() {
+        final EccairsTaxonomyService first = new EccairsTaxonomyService(stub.getUrl(),
+                                                                        new FileSystemTaxonomySnapshotStore(directory));
+        final List<Integer> expected = first.getValueList(390).stream().map(EccairsValue::getId).toList();
+        final long treeRequests = stub.getRequestCounts().get(TREE_ENDPOINT);
+        final long childrenRequests = stub.getRequestCounts().get(CHILDREN_ENDPOINT);
+
+        final EccairsTaxonomyService second = new EccairsTaxonomyService(stub.getUrl(),
+                                                                         new FileSystemTaxonomySnapshotStore(directory));
+        assertEquals("Runway", second.getEntity(31).label());
+        assertEquals(expected, second.getValueList(390).stream().map(EccairsValue::getId).toList());
+        assertEquals(treeRequests, stub.getRequestCounts().get(TREE_ENDPOINT));
+        assertEquals(childrenRequests, stub.getRequestCounts().get(CHILDREN_ENDPOINT));
+        assertTrue(second.getValueListCrawlProfile(390).isPresent());
+        assertEquals(0, second.getValueListCrawlProfile(390).get().requestCount());
+    }
+
+    @Test
+    void publishedValueListIsLoadedFromStoreOnlyOnce() {
+        new EccairsTaxonomyService(stub.getUrl(), new FileSystemTaxonomySnapshotStore(directory)).getValueList(431);
+        final AtomicInteger valueListLoads = new AtomicInteger();
+        final FileSystemTaxonomySnapshotStore store = new FileSystemTaxonomySnapshotStore(directory) {
+            @Override
+            public Optional<List<EccairsValue>> loadValueList(int taxonomyVersionId, int attributeId) {
+                valueListLoads.incrementAndGet();
+                return super.loadValueList(taxonomyVersionId, attributeId);
+            }
+        };
+        final EccairsTaxonomyService sut = new EccairsTaxonomyService(stub.getUrl(), store);
+
+        sut.getValueList(431);
+        sut.getValueList(431);
+        assertEquals(1, valueListLoads.get());
+    }
+
+    @Test
+    void equalPublishedValueListsOfDifferentAttributesAreShared() {
+        final EccairsTaxonomyService first = new EccairsTaxonomyService(stub.getUrl(),
+                                                                        new FileSystemTaxonomySnapshotStore(directory));
+        first.getValueList(390);
+        first.getValueList(391);
+
+        final EccairsTaxonomyService second = new EccairsTaxonomyService(stub.getUrl(),
+                                                                         new FileSystemTaxonomySnapshotStore(directory));
+        assertSame(second.getValueList(390), second.getValueList(391));
+    }
+
+    @Test
+    void taxonomyIsLoadedDirectlyWhenSnapshotStoreIsNotAccessible() {
+        final EccairsTaxonomyService sut = new EccairsTaxonomyService(stub.getUrl(), new TaxonomySnapshotStore() {
+            @Override
+            public Optional<TaxonomySnapshot> load(int taxonomyVersionId) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void publish(TaxonomySnapshot snapshot) {
+                throw new TaxonomyServiceException("Store is read-only.");
+            }
+
+            @Override
+            public Optional<Lock> tryLock() {
+                throw new TaxonomyServiceException("Store is not accessible.");
+            }
+        });
+
+        assertEquals("5.1.1.2", sut.getTaxonomyVersion());
+        assertFalse(sut.getValueList(431).isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package com.akaene.eccairs;
+
+import com.akaene.eccairs.limit.RequestLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link EccairsTaxonomyService} against a local {@link TaxonomyStubServer}.
+ */
+class EccairsTaxonomyServiceStubTest {
+
+    private static final String CHILDREN_ENDPOINT = "/listofvalue/public/childrenLov";
+
+    private static final String ATTRIBUTE_ENDPOINT = "/attributes/public/byID";
+
+    private static final String VERSION_ENDPOINT = "/version/public";
+
+    private static final String FIRST_LEVEL_ENDPOINT = "/attributes/public/showFirstLevelValues";
+
+    private TaxonomyStubServer stub;
+
+    private EccairsTaxonomyService sut;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.stub = new TaxonomyStubServer();
+        this.sut = new EccairsTaxonomyService(stub.getUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void getValueListCrawlsValueListSharedByAttributesOnlyOnce() {
+        // A-391 shares its (hierarchical) value list with A-390
+        final List<EccairsValue> first = sut.getValueList(390);
+        final long childrenRequests = stub.getRequestCounts().get(CHILDREN_ENDPOINT);
+        assertTrue(childrenRequests > 0);
+
+        final List<EccairsValue> second = sut.getValueList(391);
+        assertEquals(childrenRequests, stub.getRequestCounts().get(CHILDREN_ENDPOINT));
+        assertEquals(first.stream().map(EccairsValue::getId).toList(),
+                     second.stream().map(EccairsValue::getId).toList());
+    }
+
+    @Test
+    void getValueListReturnsSharedUnmodifiableValueList() {
+        final List<EccairsValue> first = sut.getValueList(390);
+        assertSame(first, sut.getValueList(390));
+        assertSame(first, sut.getValueList(391));
+
+        final EccairsValue withChildren = first.stream().filter(v -> v.getValues() != null).findFirst()
+                                               .orElseThrow();
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).setDescription("Modified"));
+        assertThrows(UnsupportedOperationException.class, () -> withChildren.getValues().clear());
+        assertThrows(UnsupportedOperationException.class, first::clear);
+    }
+
+    @Test
+    void repeatedAndSharedValueListAccessDoesNotRetainAdditionalObjects() {
+        final int singleLoad = reachableObjectCount(List.of(sut.getValueList(390)));
+        assertTrue(singleLoad > 0);
+
+        final List<List<EccairsValue>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(sut.getValueList(390));
+            results.add(sut.getValueList(391));
+        }
+        // Values and lists held by callers are the same objects, no matter how many times or for which attribute
+        assertEquals(singleLoad, reachableObjectCount(results));
+    }
+
+    @Test
+    void loadValueListsLoadsFirstLevelValuesInBulk() {
+        final List<Integer> attributeIds = List.of(431, 433, 430, 390, 391, 440);
+        sut.loadValueLists(attributeIds);
+        assertEquals(1, stub.getRequestCounts().get(FIRST_LEVEL_ENDPOINT));
+        final long childrenRequests = stub.getRequestCounts().get(CHILDREN_ENDPOINT);
+
+        attributeIds.forEach(sut::getValueList);
+        assertEquals(1, stub.getRequestCounts().get(FIRST_LEVEL_ENDPOINT));
+        assertEquals(childrenRequests, stub.getRequestCounts().get(CHILDREN_ENDPOINT));
+        assertSame(sut.getValueList(431), sut.getValueList(433));
+        assertTrue(sut.getValueList(440).isEmpty());
+        assertFalse(sut.getValueList(430).isEmpty());
+    }
+
+    @Test
+    void getValueListReturnsEmptyListForAttributeWithoutValueList() {
+        final List<EccairsValue> result = sut.getValueList(440);
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void loadAttributeMetadataGetsValueListDetailsMissingInBulkResponseFromAttributeDetail() {
+        sut.loadAttributeMetadata(List.of(390, 431, 440));
+        assertEquals(3, stub.getRequestCounts().get(ATTRIBUTE_ENDPOINT));
+
+        final AttributeMetadata eventType = sut.getAttributeMetadata(390);
+        assertEquals(1390, eventType.id());
+        assertTrue(eventType.hasValueList());
+        assertEquals(3, eventType.valueListLevels());
+        assertEquals(Optional.of(24), eventType.parentEntityId());
+        assertFalse(sut.getAttributeMetadata(431).hasHierarchicalValueList());
+        final AttributeMetadata narrative = sut.getAttributeMetadata(440);
+        assertFalse(narrative.hasValueList());
+        assertEquals("Text", narrative.dataType());
+        assertEquals(3, stub.getRequestCounts().get(ATTRIBUTE_ENDPOINT));
+    }
+
+    @Test
+    void loadAttributeMetadataSkipsBulkResponseItemsWithoutIdentifier() {
+        stub.withAnonymousAttributeSummaries();
+        sut.loadAttributeMetadata(List.of(390, 431));
+
+        assertNull(stub.getRequestCounts().get(ATTRIBUTE_ENDPOINT));
+        assertThrows(TaxonomyServiceException.class, () -> sut.getAttributeMetadata(390));
+    }
+
+    @Test
+    void requestExceedingTimeoutFailsAndDecreasesAdaptiveLimit() {
+        stub.withLatency(2_000);
+        final RequestLimiter limiter = new RequestLimiter(0, 16, true);
+        final int initialLimit = limiter.getLimit();
+        final EccairsTaxonomyService service = new EccairsTaxonomyService(stub.getUrl(), null, limiter,
+                                                                          Duration.ofMillis(100));
+
+        assertThrows(TaxonomyServiceException.class, service::getTaxonomyVersion);
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() < initialLimit);
+    }
+
+    @Test
+    void notFoundResponseDoesNotDecreaseAdaptiveLimit() {
+        stub.withNotFound(VERSION_ENDPOINT);
+        final RequestLimiter limiter = new RequestLimiter(0, 16, true);
+        final int initialLimit = limiter.getLimit();
+        final EccairsTaxonomyService service = new EccairsTaxonomyService(stub.getUrl(), null, limiter);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(TaxonomyServiceException.class, service::getTaxonomyVersion);
+        }
+        assertEquals(5, stub.getRequestCounts().get(VERSION_ENDPOINT));
+        assertTrue(limiter.getLimit() >= initialLimit);
+    }
+
+    /**
+     * Counts distinct value and list objects reachable from the specified value lists.
+     */
+    private static int reachableObjectCount(List<List<EccairsValue>> valueLists) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<List<EccairsValue>> toVisit = new ArrayDeque<>(valueLists);
+        while (!toVisit.isEmpty()) {
+            final List<EccairsValue> list = toVisit.pop();
+            if (!visited.add(list)) {
+                continue;
+            }
+            for (EccairsValue v : list) {
+                if (visited.add(v) && v.getValues() != null) {
+                    toVisit.push(v.getValues());
+                }
+            }
+        }
+        return visited.size();
+    }
+}
@@ -35,6 +35,16 @@ class EccairsTaxonomyServiceTest {
         assertTrue(sut.hasHierarchicalValueList(32));
     }
 
+    @Test
+    void loadsAttributeMetadataInBulk() {
+        sut.loadAttributeMetadata(List.of(430, 431, 32));
+        final AttributeMetadata result = sut.getAttributeMetadata(431);
+        assertEquals(431, result.taxonomyCode());
+        assertEquals(Optional.of(24), result.parentEntityId());
+        assertFalse(sut.getAttributeMetadata(430).hasHierarchicalValueList());
+        assertTrue(sut.getAttributeMetadata(32).hasHierarchicalValueList());
+    }
+
     @Test
     void getsValueList() {
         final List<EccairsValue> result = sut.getValueList(431);
@@ -0,0 +1,254 @@
+package com.akaene.eccairs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process HTTP server imitating the Taxonomy Browser API.
+ * <p>
+ * Serves a taxonomy from {@code stub/taxonomy.json} and supports configurable response latency, random errors and
+ * throttling (responding with 429 when too many requests are in flight).
+ * <p>
+ * Note that the taxonomy is synthetic. It is a small hand-written taxonomy following the format of Taxonomy Browser API
+ * responses, not a recording of real responses. The bulk attribute endpoint ({@code byIDs}) returns only identifiers
+ * and parent entities of attributes, value list details are provided only by the single attribute endpoint
+ * ({@code byID}).
+ */
+public class TaxonomyStubServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonNode taxonomy;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final LongAdder throttledRequests = new LongAdder();
+
+    private volatile long latencyMillis;
+
+    private volatile double errorRate;
+
+    private volatile int throttleThreshold = Integer.MAX_VALUE;
+
+    private volatile boolean anonymousAttributeSummaries;
+
+    private final Set<String> notFoundEndpoints = ConcurrentHashMap.newKeySet();
+
+    public TaxonomyStubServer() throws IOException {
+        try (final InputStream in = TaxonomyStubServer.class.getClassLoader()
+                                                            .getResourceAsStream("stub/taxonomy.json")) {
+            this.taxonomy = objectMapper.readTree(in);
+        }
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Sets latency added to each response.
+     */
+    public TaxonomyStubServer withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of requests answered with 500.
+     */
+    public TaxonomyStubServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Sets the number of requests in flight above which requests are answered with 429.
+     */
+    public TaxonomyStubServer withThrottleThreshold(int throttleThreshold) {
+        this.throttleThreshold = throttleThreshold;
+        return this;
+    }
+
+    /**
+     * Makes the bulk attribute endpoint omit attribute identifiers from its response.
+     */
+    public TaxonomyStubServer withAnonymousAttributeSummaries() {
+        this.anonymousAttributeSummaries = true;
+        return this;
+    }
+
+    /**
+     * Makes the specified endpoint (path without a trailing identifier) respond with 404.
+     */
+    public TaxonomyStubServer withNotFound(String endpoint) {
+        notFoundEndpoints.add(endpoint);
+        return this;
+    }
+
+    /**
+     * Gets the total number of received requests.
+     */
+    public long getRequestCount() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Gets the number of received requests per endpoint.
+     */
+    public Map<String, Long> getRequestCounts() {
+        final Map<String, Long> result = new ConcurrentHashMap<>();
+        requestCounts.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    /**
+     * Gets the number of requests answered with 429.
+     */
+    public long getThrottledRequestCount() {
+        return throttledRequests.sum();
+    }
+
+    /**
+     * Gets the maximum number of requests in flight observed.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try (exchange) {
+            final String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(endpoint(path), k -> new LongAdder()).increment();
+            if (current > throttleThreshold) {
+                throttledRequests.increment();
+                respond(exchange, 429, "");
+                return;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 500, "");
+                return;
+            }
+            final JsonNode data = notFoundEndpoints.contains(endpoint(path)) ? null : resolve(exchange, path);
+            if (data == null) {
+                respond(exchange, 404, "");
+                return;
+            }
+            final ObjectNode body = objectMapper.createObjectNode();
+            body.set("data", data);
+            body.put("returnCode", "OK");
+            respond(exchange, 200, objectMapper.writeValueAsString(body));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Identifies endpoint of the specified path, i.e., the path without a trailing identifier.
+     */
+    private static String endpoint(String path) {
+        return path.replaceAll("/\\d+$", "");
+    }
+
+    private JsonNode resolve(HttpExchange exchange, String path) throws IOException {
+        if (path.endsWith("/version/public")) {
+            return taxonomy.get("version");
+        } else if (path.endsWith("/tree/public")) {
+            return taxonomy.get("tree");
+        } else if (path.endsWith("/attributes/public/showFirstLevelValues")) {
+            final String attributesList = exchange.getRequestURI().getQuery().replace("attributesList=", "");
+            final ObjectNode map = objectMapper.createObjectNode();
+            for (String attId : attributesList.split(",")) {
+                map.set(attId, taxonomy.get("firstLevelValues").get(attId));
+            }
+            final ObjectNode result = objectMapper.createObjectNode();
+            result.set("map", map);
+            return result;
+        } else if (path.contains("/listofvalue/public/childrenLov/")) {
+            final JsonNode children = taxonomy.get("childrenLov").get(path.substring(path.lastIndexOf('/') + 1));
+            final ObjectNode result = objectMapper.createObjectNode();
+            result.set("list", children != null ? children : objectMapper.createArrayNode());
+            return result;
+        } else if (path.contains("/attributes/public/byID/")) {
+            return taxonomy.get("attributes").get(path.substring(path.lastIndexOf('/') + 1));
+        } else if (path.endsWith("/attributes/public/byIDs")) {
+            final JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            final ArrayNode result = objectMapper.createArrayNode();
+            request.get("attributeIdentifiers").forEach(id -> {
+                final JsonNode attribute = taxonomy.get("attributes").get(id.asText());
+                if (attribute != null) {
+                    // Reversed, so that clients cannot rely on the order of the requested identifiers
+                    result.insert(0, attributeSummary(attribute));
+                }
+            });
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Bulk attribute endpoint returns only a summary of each attribute, without value list details.
+     */
+    private JsonNode attributeSummary(JsonNode attribute) {
+        final ObjectNode summary = objectMapper.createObjectNode();
+        if (!anonymousAttributeSummaries) {
+            summary.set("id", attribute.get("id"));
+            summary.set("taxonomyCode", attribute.get("taxonomyCode"));
+        }
+        summary.set("parentEntity", attribute.get("parentEntity"));
+        return summary;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
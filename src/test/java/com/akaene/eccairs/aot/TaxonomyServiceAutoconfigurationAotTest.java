@@ -0,0 +1,118 @@
+package com.akaene.eccairs.aot;
+
+import com.akaene.eccairs.EccairsTaxonomyService;
+import com.akaene.eccairs.TaxonomyServiceAutoconfiguration;
+import com.akaene.eccairs.TaxonomyStubServer;
+import com.akaene.eccairs.actuate.CrawlProfileEndpoint;
+import com.akaene.eccairs.values.ValueListElement;
+import com.akaene.eccairs.values.ValueListService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.test.tools.CompileWithForkedClassLoader;
+import org.springframework.core.test.tools.TestCompiler;
+import org.springframework.javapoet.ClassName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Processes the autoconfigured application context ahead of time and runs the generated context, as a native image
+ * would.
+ */
+@CompileWithForkedClassLoader
+class TaxonomyServiceAutoconfigurationAotTest {
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private TaxonomyStubServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.stub = new TaxonomyStubServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void aotProcessedContextProvidesCachedValueListsAndSnapshotStoreConfiguredAtRuntime() {
+        final TestGenerationContext generationContext = new TestGenerationContext();
+        final ClassName initializerName;
+        // Processed without any taxonomy properties, they are provided only at runtime
+        try (final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(AotTestConfiguration.class);
+            initializerName = new ApplicationContextAotGenerator().processAheadOfTime(context, generationContext);
+        }
+        generationContext.writeGeneratedContent();
+
+        TestCompiler.forSystem().with(generationContext).compile(compiled -> {
+            @SuppressWarnings("unchecked")
+            final ApplicationContextInitializer<GenericApplicationContext> initializer =
+                    compiled.getInstance(ApplicationContextInitializer.class, initializerName.toString());
+            try (final GenericApplicationContext runtime = new GenericApplicationContext()) {
+                runtime.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                        "taxonomy.eccairs.url", stub.getUrl(),
+                        "taxonomy.eccairs.snapshot.directory", snapshotDirectory.toString())));
+                initializer.initialize(runtime);
+                runtime.refresh();
+                verifyRuntimeContext(runtime);
+            }
+        });
+    }
+
+    private void verifyRuntimeContext(GenericApplicationContext runtime) {
+        final ValueListService valueListService = runtime.getBean(ValueListService.class);
+        assertTrue(AopUtils.isAopProxy(valueListService));
+        final List<ValueListElement> values = valueListService.getValueList(431);
+        assertFalse(values.isEmpty());
+        assertSame(values, valueListService.getValueList(431));
+
+        // getValue goes through the lazily injected self proxy and caches its result using the key generator
+        assertNotNull(valueListService.getValue(431, values.get(0).getId()));
+        final ConcurrentMapCache taxonomyValues = (ConcurrentMapCache) runtime.getBean(CacheManager.class)
+                                                                              .getCache("taxonomyValues");
+        assertNotNull(taxonomyValues);
+        assertFalse(taxonomyValues.getNativeCache().isEmpty());
+
+        final int versionId = runtime.getBean(EccairsTaxonomyService.class).getTaxonomyVersionId();
+        assertTrue(Files.exists(snapshotDirectory.resolve("taxonomy-" + versionId + ".json")));
+        assertNotNull(runtime.getBean(CrawlProfileEndpoint.class));
+    }
+
+    @Configuration
+    @EnableCaching
+    @ImportAutoConfiguration(TaxonomyServiceAutoconfiguration.class)
+    static class AotTestConfiguration {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("valueLists", "taxonomyValues");
+        }
+    }
+}
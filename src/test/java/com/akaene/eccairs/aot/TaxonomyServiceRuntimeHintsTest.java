@@ -0,0 +1,46 @@
+package com.akaene.eccairs.aot;
+
+import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.TaxonomyServiceResponse;
+import com.akaene.eccairs.cache.TaxonomyValueCacheKey;
+import com.akaene.eccairs.values.ValueListElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaxonomyServiceRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new TaxonomyServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersReflectionHintsForTaxonomyServiceResponseBinding() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TaxonomyServiceResponse.class).test(hints));
+    }
+
+    @Test
+    void registersReflectionHintsForValueListSnapshotBinding() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EccairsValue.class).test(hints));
+    }
+
+    @Test
+    void registersReflectionHintsForPublishingLoadedValueLists() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                                         .onType(TypeReference.of("com.akaene.eccairs.UnmodifiableEccairsValue"))
+                                         .test(hints));
+    }
+
+    @Test
+    void registersSerializationHintsForCachedTypes() {
+        assertTrue(RuntimeHintsPredicates.serialization().onType(ValueListElement.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.serialization().onType(TaxonomyValueCacheKey.class).test(hints));
+    }
+}
@@ -0,0 +1,170 @@
+package com.akaene.eccairs.cache;
+
+import com.akaene.eccairs.values.ValueListElement;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueListCodecTest {
+
+    private final ValueListCodec sut = new ValueListCodec();
+
+    @Test
+    void valueListRoundTripPreservesElementsParentsAndDescendants() {
+        final List<ValueListElement> valueList = generateValueList(390, 5, 4);
+
+        final List<ValueListElement> result = sut.decodeValueList(sut.encodeValueList(valueList));
+        assertEquals(valueList.size(), result.size());
+        for (int i = 0; i < valueList.size(); i++) {
+            assertElementEquals(valueList.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    void valueListRoundTripPreservesExplicitDescendantsAndUnknownParents() {
+        final ValueListElement root = new ValueListElement(1, "Root", null, 431);
+        root.setDescendants(List.of(3, 2));
+        final ValueListElement orphan = new ValueListElement(2, "Orphan", "Description", 431);
+        orphan.setParent(100);
+        orphan.setDescendants(List.of());
+        final ValueListElement other = new ValueListElement(3, "Other", "Description", 32);
+
+        final List<ValueListElement> valueList = List.of(root, orphan, other);
+        final List<ValueListElement> result = sut.decodeValueList(sut.encodeValueList(valueList));
+        for (int i = 0; i < valueList.size(); i++) {
+            assertElementEquals(valueList.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    void encodedValueListIsSmallerThanJavaSerializedOne() throws Exception {
+        final List<ValueListElement> valueList = generateValueList(390, 8, 6);
+        final ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(javaSerialized)) {
+            out.writeObject(valueList);
+        }
+        assertTrue(sut.encodeValueList(valueList).length < javaSerialized.size() / 2);
+    }
+
+    @Test
+    void elementRoundTrip() {
+        final ValueListElement element = new ValueListElement(2000000, "Label", null, 390);
+        element.setParent(1000000);
+        element.setDescendants(List.of(2000001, 2000002));
+
+        assertElementEquals(element, sut.decodeElement(sut.encodeElement(element)));
+    }
+
+    @Test
+    void cacheKeyRoundTrip() {
+        final TaxonomyValueCacheKey key = new TaxonomyValueCacheKey(431, -5);
+        assertEquals(key, sut.decodeCacheKey(sut.encodeCacheKey(key)));
+        final TaxonomyValueCacheKey nullKey = new TaxonomyValueCacheKey(null, 1);
+        assertEquals(nullKey, sut.decode(sut.encode(nullKey)));
+    }
+
+    @Test
+    void decodeRejectsUnsupportedVersion() {
+        final byte[] data = sut.encode(431);
+        data[1] = ValueListCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> sut.decode(data));
+    }
+
+    @Test
+    void decodeRejectsTruncatedPayload() {
+        final byte[] data = sut.encodeValueList(generateValueList(431, 3, 2));
+        final byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> sut.decode(truncated));
+    }
+
+    @Test
+    void decodeRejectsCorruptedStringIndex() {
+        final ValueListElement element = new ValueListElement(1, "A", null, 431);
+        final byte[] data = sut.encodeValueList(List.of(element));
+        // Header (3), uniform attribute flag (1), attribute (2), string table size (1), "A" (2), element count (1),
+        // id delta (1), followed by the label index
+        final int labelIndex = 11;
+        assertEquals(1, data[labelIndex]);
+        data[labelIndex] = 0x7F;
+        assertThrows(IllegalArgumentException.class, () -> sut.decode(data));
+    }
+
+    @Test
+    void decodeRejectsCorruptedLengths() {
+        final byte[] data = sut.encodeValueList(generateValueList(431, 3, 2));
+        // String table size follows the header, the uniform attribute flag and the attribute (431 takes two bytes)
+        final int stringTableSize = 6;
+        data[stringTableSize] = (byte) 0xFF;
+        data[stringTableSize + 1] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> sut.decode(data));
+    }
+
+    @Test
+    void decodeRejectsCorruptedParentReference() {
+        final ValueListElement parent = new ValueListElement(1, "Parent", null, 431);
+        final ValueListElement child = new ValueListElement(2, "Child", null, 431);
+        child.setParent(1);
+        final byte[] data = sut.encodeValueList(List.of(parent, child));
+        // Parent reference of the child is followed only by its descendants encoding
+        final int parentReference = data.length - 2;
+        assertEquals(3, data[parentReference]);
+        data[parentReference] = 5;
+        assertThrows(IllegalArgumentException.class, () -> sut.decode(data));
+    }
+
+    @Test
+    void valueListWithElementWithoutIdentifierIsNotSupported() {
+        final List<ValueListElement> valueList = List.of(new ValueListElement(1, "A", null, 431),
+                                                         new ValueListElement(null, "B", null, 431));
+
+        assertFalse(sut.supports(valueList));
+        assertThrows(IllegalArgumentException.class, () -> sut.encode(valueList));
+        assertThrows(IllegalArgumentException.class, () -> sut.encodeValueList(valueList));
+        // Standalone elements may have no identifier
+        assertTrue(sut.supports(valueList.get(1)));
+    }
+
+    /**
+     * Generates a two-level value list flattened the same way as by the value list service.
+     */
+    private static List<ValueListElement> generateValueList(int attributeId, int groups, int groupSize) {
+        final List<ValueListElement> result = new ArrayList<>();
+        for (int g = 1; g <= groups; g++) {
+            final ValueListElement group = new ValueListElement(g * 1000, "Group " + g, "Group " + g + " description",
+                                                                attributeId);
+            result.add(group);
+            final List<Integer> descendants = new ArrayList<>();
+            for (int i = 1; i <= groupSize; i++) {
+                final ValueListElement child = new ValueListElement(g * 1000 + i, "Value " + g + "." + i,
+                                                                    "Shared description", attributeId);
+                child.setParent(group.getId());
+                descendants.add(child.getId());
+                result.add(child);
+            }
+            group.setDescendants(descendants);
+        }
+        return result;
+    }
+
+    private static void assertElementEquals(ValueListElement expected, ValueListElement actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.getLabel(), actual.getLabel());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getParent(), actual.getParent());
+        if (expected.getDescendants() == null) {
+            assertNull(actual.getDescendants());
+        } else {
+            assertEquals(expected.getDescendants(), actual.getDescendants());
+        }
+    }
+}
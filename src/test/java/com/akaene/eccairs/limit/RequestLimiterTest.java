@@ -0,0 +1,76 @@
+package com.akaene.eccairs.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLimiterTest {
+
+    @Test
+    void acquireBlocksWhenMaxInFlightIsReached() throws Exception {
+        final RequestLimiter sut = new RequestLimiter(0, 1, false);
+        final RequestLimiter.Permit permit = sut.acquire();
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread t = new Thread(() -> {
+            try {
+                sut.acquire().release(true);
+                acquired.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        t.start();
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+        permit.release(true);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        assertEquals(0, sut.getInFlight());
+    }
+
+    @Test
+    void acquireDelaysRequestsExceedingRate() throws Exception {
+        final RequestLimiter sut = new RequestLimiter(10, 0, false);
+        final long start = System.nanoTime();
+        // The bucket holds 10 tokens, the remaining 5 requests have to wait for refill
+        for (int i = 0; i < 15; i++) {
+            sut.acquire().release(true);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 400);
+    }
+
+    @Test
+    void adaptiveLimitGrowsWithSuccessfulRequests() throws Exception {
+        final RequestLimiter sut = new RequestLimiter(0, 16, true);
+        assertEquals(RequestLimiter.INITIAL_ADAPTIVE_LIMIT, sut.getLimit());
+        for (int i = 0; i < 100; i++) {
+            sut.acquire().release(true);
+        }
+        assertTrue(sut.getLimit() > RequestLimiter.INITIAL_ADAPTIVE_LIMIT);
+        assertTrue(sut.getLimit() <= 16);
+    }
+
+    @Test
+    void adaptiveLimitDecreasesOnFailure() throws Exception {
+        final RequestLimiter sut = new RequestLimiter(0, 16, true);
+        sut.acquire().release(false);
+        assertEquals(RequestLimiter.INITIAL_ADAPTIVE_LIMIT / 2, sut.getLimit());
+    }
+
+    @Test
+    void releasingPermitMultipleTimesReleasesItOnce() throws Exception {
+        final RequestLimiter sut = new RequestLimiter(0, 2, false);
+        final RequestLimiter.Permit permit = sut.acquire();
+        sut.acquire();
+        permit.release(true);
+        permit.release(true);
+        assertEquals(1, sut.getInFlight());
+    }
+}
@@ -0,0 +1,246 @@
+package com.akaene.eccairs.load;
+
+import com.akaene.eccairs.EccairsTaxonomyService;
+import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.TaxonomyServiceAutoconfiguration;
+import com.akaene.eccairs.TaxonomyStubServer;
+import com.akaene.eccairs.values.ValueListService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives concurrent callers through the autoconfigured beans against a local {@link TaxonomyStubServer}.
+ * <p>
+ * These tests are excluded from the default build, run them using the {@literal load-test} profile.
+ */
+@Tag("load")
+class TaxonomyServiceLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaxonomyServiceLoadTest.class);
+
+    /**
+     * Attributes served by the stub. A-433 shares its value list with A-431.
+     */
+    private static final int[] ATTRIBUTES = {431, 433, 430, 390, 32};
+
+    private TaxonomyStubServer stub;
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.stub = new TaxonomyStubServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        stub.close();
+    }
+
+    private void startContext(String... properties) {
+        final List<String> props = new ArrayList<>(Arrays.asList(properties));
+        props.add("taxonomy.eccairs.url=" + stub.getUrl());
+        this.context = new SpringApplicationBuilder(LoadTestConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(props.toArray(String[]::new))
+                .run();
+    }
+
+    @Test
+    void concurrentValueListAccessWithCaching() throws Exception {
+        stub.withLatency(5);
+        startContext();
+        final ValueListService valueListService = context.getBean(ValueListService.class);
+        final List<Integer> values431 = valueListService.getValueList(431).stream().map(v -> v.getId()).toList();
+        final long requestsBefore = stub.getRequestCount();
+
+        final LoadResult result = drive("cached value lists", 32, 500, () -> {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int attributeId = ATTRIBUTES[random.nextInt(ATTRIBUTES.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> valueListService.getValueList(attributeId);
+                case 1 -> valueListService.getValue(431, values431.get(random.nextInt(values431.size())));
+                default -> valueListService.isValid(attributeId, random.nextInt(1_000_000, 1_090_000));
+            }
+        });
+        assertEquals(0, result.errors());
+        // Each value list should be loaded (roughly) once, concurrent cache misses may load it a few more times
+        final long firstLevelRequests = stub.getRequestCounts()
+                                            .getOrDefault("/attributes/public/showFirstLevelValues", 0L);
+        assertTrue(firstLevelRequests <= ATTRIBUTES.length * 4L, "First level requests: " + firstLevelRequests);
+        LOG.info("Upstream requests during the run: {}", stub.getRequestCount() - requestsBefore);
+    }
+
+    @Test
+    void concurrentLoadingOfSharedValueListsCrawlsThemOnce() throws Exception {
+        startContext();
+        final EccairsTaxonomyService taxonomyService = context.getBean(EccairsTaxonomyService.class);
+        taxonomyService.getTaxonomyVersion();
+        taxonomyService.getValueList(431);
+        final long childrenRequests = stub.getRequestCounts().getOrDefault("/listofvalue/public/childrenLov", 0L);
+
+        final LoadResult result = drive("shared value lists", 8, 10, () -> taxonomyService.getValueList(433));
+        assertEquals(0, result.errors());
+        assertEquals(taxonomyService.getValueList(431).stream().map(EccairsValue::getId).toList(),
+                     taxonomyService.getValueList(433).stream().map(EccairsValue::getId).toList());
+        assertEquals(childrenRequests, stub.getRequestCounts().getOrDefault("/listofvalue/public/childrenLov", 0L));
+    }
+
+    @Test
+    void slowUpstreamDoesNotGetMoreRequestsInFlightThanConfigured() throws Exception {
+        stub.withLatency(50);
+        startContext("taxonomy.eccairs.limiter.max-in-flight=4");
+        final EccairsTaxonomyService taxonomyService = context.getBean(EccairsTaxonomyService.class);
+
+        final LoadResult result = drive("slow upstream, max 4 in flight", 16, 5,
+                                        () -> taxonomyService.getValueList(32));
+        assertEquals(0, result.errors());
+        assertTrue(stub.getMaxInFlight() <= 4, "Max in flight: " + stub.getMaxInFlight());
+    }
+
+    @Test
+    void adaptiveLimiterBacksOffFromThrottlingUpstream() throws Exception {
+        stub.withLatency(20).withThrottleThreshold(3);
+        // Loading version info is not cached, so that each operation sends a request
+        startContext();
+        final EccairsTaxonomyService unlimited = context.getBean(EccairsTaxonomyService.class);
+        drive("throttling upstream, no limiter", 16, 20, unlimited::loadTaxonomyVersionInfo);
+        final long unlimitedThrottled = stub.getThrottledRequestCount();
+        context.close();
+
+        startContext("taxonomy.eccairs.limiter.max-in-flight=16", "taxonomy.eccairs.limiter.adaptive=true");
+        final EccairsTaxonomyService adaptive = context.getBean(EccairsTaxonomyService.class);
+        drive("throttling upstream, adaptive limiter", 16, 20, adaptive::loadTaxonomyVersionInfo);
+        final long adaptiveThrottled = stub.getThrottledRequestCount() - unlimitedThrottled;
+
+        assertTrue(unlimitedThrottled > 0, "Unlimited run was not throttled.");
+        assertTrue(adaptiveThrottled < unlimitedThrottled / 2,
+                   "Throttled requests: " + adaptiveThrottled + " with adaptive limiter, " + unlimitedThrottled +
+                           " without limiter");
+    }
+
+    @Test
+    void errorsFromUpstreamAreReportedToCallers() throws Exception {
+        startContext();
+        final EccairsTaxonomyService taxonomyService = context.getBean(EccairsTaxonomyService.class);
+        taxonomyService.getTaxonomyVersion();
+        stub.withErrorRate(0.2);
+
+        final LoadResult result = drive("erroneous upstream", 8, 50, () -> taxonomyService.getValueList(430));
+        assertTrue(result.errors() > 0);
+    }
+
+    private LoadResult drive(String name, int threads, int operationsPerThread,
+                             Runnable operation) throws InterruptedException {
+        final long upstreamBefore = stub.getRequestCount();
+        final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                                                                  .filter(p -> p.getType() == MemoryType.HEAP)
+                                                                  .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long[][] latencies = new long[threads][operationsPerThread];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long[] threadLatencies = latencies[t];
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        final long opStart = System.nanoTime();
+                        try {
+                            operation.run();
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        threadLatencies[i] = System.nanoTime() - opStart;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + t);
+            thread.start();
+        }
+        final long runStart = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Load test run did not finish in time.");
+        final long durationNanos = System.nanoTime() - runStart;
+        // Sum of per-pool peaks, pools may peak at different times, so this is an upper bound
+        final long heapPeak = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+        System.gc();
+        final long heapRetained = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        final long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        final LoadResult result = new LoadResult(all.length, errors.get(), durationNanos, all,
+                                                 stub.getRequestCount() - upstreamBefore, heapPeak, heapRetained);
+        LOG.info("{}: {}", name, result);
+        return result;
+    }
+
+    private record LoadResult(int operations, int errors, long durationNanos, long[] sortedLatencies,
+                              long upstreamRequests, long heapPeak, long heapRetained) {
+
+        double throughput() {
+            return operations / (durationNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            final int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d operations (%d errors) in %d ms, %.1f ops/s, latency p50 %.2f ms, " +
+                                         "p95 %.2f ms, p99 %.2f ms, max %.2f ms, upstream requests %d, " +
+                                         "heap peak %d MB, heap retained after GC %d MB",
+                                 operations, errors, TimeUnit.NANOSECONDS.toMillis(durationNanos), throughput(),
+                                 percentileMillis(50), percentileMillis(95), percentileMillis(99),
+                                 percentileMillis(100), upstreamRequests, heapPeak / (1024 * 1024),
+                                 heapRetained / (1024 * 1024));
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    @ImportAutoConfiguration(TaxonomyServiceAutoconfiguration.class)
+    static class LoadTestConfiguration {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("valueLists", "taxonomyValues");
+        }
+    }
+}
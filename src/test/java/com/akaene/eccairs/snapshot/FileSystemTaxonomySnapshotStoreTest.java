@@ -0,0 +1,104 @@
+package com.akaene.eccairs.snapshot;
+
+import com.akaene.eccairs.EccairsValue;
+import com.akaene.eccairs.TaxonomyVersionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSystemTaxonomySnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private FileSystemTaxonomySnapshotStore sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new FileSystemTaxonomySnapshotStore(directory);
+    }
+
+    @Test
+    void loadReturnsPublishedSnapshot() {
+        final TaxonomySnapshot snapshot = new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.2", 218),
+                                                               "[{\"id\":1,\"tc\":24,\"type\":\"E\"}]");
+        sut.publish(snapshot);
+
+        final Optional<TaxonomySnapshot> result = sut.load(218);
+        assertTrue(result.isPresent());
+        assertEquals(snapshot.version(), result.get().version());
+        assertEquals(snapshot.tree(), result.get().tree());
+    }
+
+    @Test
+    void loadReturnsEmptyWhenSnapshotOfVersionDoesNotExist() {
+        sut.publish(new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.2", 218), "[]"));
+        assertFalse(sut.load(219).isPresent());
+    }
+
+    @Test
+    void publishRemovesSnapshotsOfOtherVersions() {
+        sut.publish(new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.2", 218), "[]"));
+        sut.publish(new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.3", 219), "[]"));
+        assertFalse(sut.load(218).isPresent());
+        assertTrue(sut.load(219).isPresent());
+        assertFalse(Files.exists(directory.resolve("taxonomy-218.json")));
+    }
+
+    @Test
+    void loadValueListReturnsPublishedValueList() {
+        final EccairsValue child = value(12, "Child");
+        final EccairsValue parent = value(1, "Parent");
+        parent.setValues(List.of(child));
+        sut.publishValueList(218, 431, List.of(parent));
+
+        final Optional<List<EccairsValue>> result = sut.loadValueList(218, 431);
+        assertTrue(result.isPresent());
+        assertEquals(1, result.get().size());
+        assertEquals(parent.getId(), result.get().get(0).getId());
+        assertEquals(parent.getDescription(), result.get().get(0).getDescription());
+        assertTrue(result.get().get(0).isActive());
+        assertEquals(child.getId(), result.get().get(0).getValues().get(0).getId());
+        assertFalse(sut.loadValueList(218, 430).isPresent());
+        assertFalse(sut.loadValueList(219, 431).isPresent());
+    }
+
+    @Test
+    void publishRemovesValueListsOfOtherVersions() {
+        sut.publish(new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.2", 218), "[]"));
+        sut.publishValueList(218, 431, List.of(value(1, "Value")));
+        sut.publish(new TaxonomySnapshot(new TaxonomyVersionInfo("5.1.1.3", 219), "[]"));
+        sut.publishValueList(219, 431, List.of(value(1, "Value")));
+
+        assertFalse(sut.loadValueList(218, 431).isPresent());
+        assertTrue(sut.loadValueList(219, 431).isPresent());
+    }
+
+    @Test
+    void tryLockReturnsEmptyWhenLockIsHeld() {
+        final Optional<TaxonomySnapshotStore.Lock> lock = sut.tryLock();
+        assertTrue(lock.isPresent());
+        assertFalse(sut.tryLock().isPresent());
+        lock.get().close();
+        final Optional<TaxonomySnapshotStore.Lock> another = sut.tryLock();
+        assertTrue(another.isPresent());
+        another.get().close();
+    }
+
+    private static EccairsValue value(int id, String description) {
+        final EccairsValue v = new EccairsValue();
+        v.setId(id);
+        v.setDescription(description);
+        v.setActive(true);
+        return v;
+    }
+}
@@ -0,0 +1,146 @@
+package com.akaene.eccairs.values;
+
+import com.akaene.eccairs.EccairsTaxonomyService;
+import com.akaene.eccairs.EccairsValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueListServiceTest {
+
+    private static final int ATTRIBUTE_ID = 431;
+
+    private final FakeTaxonomyService taxonomyService = new FakeTaxonomyService();
+
+    private final ValueListService sut = new ValueListService(taxonomyService);
+
+    @Test
+    void isValidReturnsTrueForValueInValueList() {
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(value(1, true), value(2, true)));
+
+        assertTrue(sut.isValid(ATTRIBUTE_ID, 2));
+    }
+
+    @Test
+    void isValidReturnsFalseForValueNotInValueList() {
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(value(1, true), value(2, true)));
+
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 3));
+    }
+
+    @Test
+    void isValidReturnsFalseForUnknownAttribute() {
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 1));
+    }
+
+    @Test
+    void isValidReturnsFalseForInactiveValuesAtAnyLevel() {
+        final EccairsValue inactiveChild = value(11, false);
+        final EccairsValue activeChild = value(12, true);
+        final EccairsValue parent = value(1, true, inactiveChild, activeChild);
+        final EccairsValue inactiveParent = value(2, false, value(21, true));
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(parent, inactiveParent));
+
+        assertTrue(sut.isValid(ATTRIBUTE_ID, 12));
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 11));
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 2));
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 21));
+    }
+
+    @Test
+    void validateLoadsValueListOfEachAttributeOnce() {
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(value(1, true), value(2, true)));
+        taxonomyService.valueLists.put(430, List.of(value(5, true)));
+
+        final boolean[] result = sut.validate(List.of(new ValueReference(ATTRIBUTE_ID, 1),
+                                                      new ValueReference(ATTRIBUTE_ID, 5),
+                                                      new ValueReference(430, 5),
+                                                      new ValueReference(ATTRIBUTE_ID, 2)));
+        assertArrayEquals(new boolean[]{true, false, true, true}, result);
+        assertEquals(2, taxonomyService.valueListLoads.get());
+        assertEquals(List.of(List.of(ATTRIBUTE_ID, 430)), taxonomyService.bulkLoads);
+    }
+
+    @Test
+    void getValueListSharesDescendantIdentifiersBetweenAttributesSharingValueList() {
+        final List<EccairsValue> shared = List.of(value(1, true, value(11, true), value(12, true)));
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, shared);
+        taxonomyService.valueLists.put(433, shared);
+
+        final List<ValueListElement> first = sut.getValueList(ATTRIBUTE_ID);
+        final List<ValueListElement> second = sut.getValueList(433);
+        assertEquals(List.of(11, 12), first.get(0).getDescendants());
+        assertSame(first.get(0).getDescendants(), second.get(0).getDescendants());
+        assertEquals(433, second.get(0).getAttributeId());
+    }
+
+    @Test
+    void isValidRebuildsIndexWhenTaxonomyVersionChanges() {
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(value(1, true)));
+        assertTrue(sut.isValid(ATTRIBUTE_ID, 1));
+
+        taxonomyService.versionId = 219;
+        taxonomyService.valueLists.put(ATTRIBUTE_ID, List.of(value(2, true)));
+
+        assertFalse(sut.isValid(ATTRIBUTE_ID, 1));
+        assertTrue(sut.isValid(ATTRIBUTE_ID, 2));
+        assertEquals(2, taxonomyService.valueListLoads.get());
+    }
+
+    private static EccairsValue value(int id, boolean active, EccairsValue... children) {
+        final EccairsValue v = new EccairsValue();
+        v.setId(id);
+        v.setDescription("Value " + id);
+        v.setActive(active);
+        if (children.length > 0) {
+            v.setValues(List.of(children));
+        }
+        return v;
+    }
+
+    private static class FakeTaxonomyService extends EccairsTaxonomyService {
+
+        private final Map<Integer, List<EccairsValue>> valueLists = new HashMap<>();
+
+        private final AtomicInteger valueListLoads = new AtomicInteger();
+
+        private final List<List<Integer>> bulkLoads = new ArrayList<>();
+
+        private volatile int versionId = 218;
+
+        private FakeTaxonomyService() {
+            super("http://localhost");
+        }
+
+        @Override
+        public int getTaxonomyVersionId() {
+            return versionId;
+        }
+
+        @Override
+        public List<EccairsValue> getValueList(int attributeId) {
+            valueListLoads.incrementAndGet();
+            final List<EccairsValue> values = valueLists.get(attributeId);
+            if (values == null) {
+                throw new IllegalArgumentException("Attribute " + attributeId + " not found.");
+            }
+            return values;
+        }
+
+        @Override
+        public void loadValueLists(Collection<Integer> attributeIds) {
+            bulkLoads.add(List.copyOf(attributeIds));
+        }
+    }
+}